@@ -0,0 +1,52 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import uk.ac.soton.comp1206.game.ClearedLines;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.Random;
+
+/**
+ * Builds the board states used by the benchmarks
+ */
+final class Boards {
+
+    private Boards() {
+    }
+
+    /**
+     * Fill a grid with random blocks until roughly the given fraction of it is occupied. Any full lines are cleared
+     * afterwards, as they would be in a real game.
+     * @param grid grid to fill
+     * @param fill fraction of blocks to fill, from 0 to 1
+     * @param seed random seed, so every fork measures the same board
+     */
+    static void fill(Grid grid, double fill, long seed) {
+        Random random = new Random(seed);
+        grid.clear();
+        for (int y = 0; y < grid.getRows(); y++) {
+            for (int x = 0; x < grid.getCols(); x++) {
+                if (random.nextDouble() < fill) {
+                    grid.set(x, y, 1 + random.nextInt(GamePiece.PIECES));
+                }
+            }
+        }
+
+        ClearedLines cleared = new ClearedLines();
+        if (grid.findLines(cleared) > 0) {
+            grid.clearLines(cleared);
+        }
+    }
+
+    /**
+     * Create every piece in every rotation
+     * @return all pieces
+     */
+    static GamePiece[] allPieces() {
+        GamePiece[] pieces = new GamePiece[GamePiece.PIECES * 4];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = GamePiece.createPiece(i / 4, i % 4);
+        }
+        return pieces;
+    }
+}
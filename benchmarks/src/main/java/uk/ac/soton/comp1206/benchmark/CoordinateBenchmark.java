@@ -0,0 +1,70 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.component.GameBlockCoordinate;
+import uk.ac.soton.comp1206.game.ClearedLines;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the GameBlockCoordinate hash path used to hand cleared blocks to the UI
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinateBenchmark {
+
+    /**
+     * Width and height of the board
+     */
+    @Param({"5", "10", "32", "64"})
+    public int size;
+
+    private ClearedLines cleared;
+    private int next;
+
+    @Setup
+    public void setup() {
+        //A board with one full row and one full column crossing in the middle
+        Grid grid = new Grid(size, size);
+        int centre = size / 2;
+        for (int i = 0; i < size; i++) {
+            grid.set(i, centre, 1);
+            grid.set(centre, i, 1);
+        }
+        cleared = new ClearedLines();
+        grid.findLines(GamePiece.createPiece(3), centre, centre, cleared);
+    }
+
+    @Benchmark
+    public int coordinateHash() {
+        next = (next + 1) % size;
+        return new GameBlockCoordinate(next, size - next).hashCode();
+    }
+
+    /**
+     * Collecting a crossing row and column into a set, as the original afterPiece did
+     */
+    @Benchmark
+    public Set<GameBlockCoordinate> collectLines() {
+        int centre = size / 2;
+        Set<GameBlockCoordinate> blocks = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            blocks.add(new GameBlockCoordinate(i, centre));
+            blocks.add(new GameBlockCoordinate(centre, i));
+        }
+        return blocks;
+    }
+
+    @Benchmark
+    public Set<GameBlockCoordinate> toCoordinates() {
+        return cleared.toCoordinates();
+    }
+}
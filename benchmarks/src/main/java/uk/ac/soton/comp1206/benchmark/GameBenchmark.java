@@ -0,0 +1,124 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.soton.comp1206.engine.EngineState;
+import uk.ac.soton.comp1206.engine.TetrecsEngine;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the line checks and scoring that follow every placement. These run against the headless engine, which
+ * owns the board the rules read. The grid of a Game is only the copy shown on the JavaFX thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    /**
+     * Number of scores added per call of the score benchmark
+     */
+    private static final int SCORES = 100;
+
+    /**
+     * Width and height of the board
+     */
+    @Param({"5", "10", "32", "64"})
+    public int size;
+
+    /**
+     * Fraction of the board which is filled
+     */
+    @Param({"0.25", "0.75"})
+    public double fill;
+
+    private TetrecsEngine engine;
+    private Grid grid;
+    private GamePiece dot;
+    private int centre;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        engine = new TetrecsEngine(size, size);
+        grid = engine.getGrid();
+        Boards.fill(grid, fill, 42);
+        dot = GamePiece.createPiece(3);
+        centre = size / 2;
+    }
+
+    /**
+     * The common case: a placement which completes no lines
+     */
+    @Benchmark
+    public int afterPieceNoLines() {
+        return engine.afterPiece(dot, centre, centre);
+    }
+
+    /**
+     * Checking every line on the board, as the original afterPiece did
+     */
+    @Benchmark
+    public int afterPieceFullScan() {
+        return engine.afterPiece();
+    }
+
+    /**
+     * A placement which completes a row and a column, from a fresh score and multiplier every call
+     */
+    @Benchmark
+    public int afterPieceClearing(Fresh fresh) {
+        fresh.engine.afterPiece(dot, fresh.centre, fresh.centre);
+        return fresh.engine.getScore();
+    }
+
+    /**
+     * Adding the score for a row and column, from a fresh score every call
+     */
+    @Benchmark
+    @OperationsPerInvocation(SCORES)
+    public void score(Fresh fresh, Blackhole blackhole) {
+        int blocks = 2 * size - 1;
+        for (int i = 0; i < SCORES; i++) {
+            fresh.engine.score(2, blocks);
+            blackhole.consume(fresh.engine.getLevel());
+        }
+    }
+
+    /**
+     * An engine put back before every call to a board with a full row and column through the centre, a score of 0
+     * and a multiplier of 1. Clearing lines raises the multiplier every time, so an engine which kept going would
+     * overflow its score within an iteration and stop measuring anything a real game reaches.
+     */
+    @State(Scope.Thread)
+    public static class Fresh {
+
+        private TetrecsEngine engine;
+        private EngineState start;
+        private int centre;
+
+        @Setup(Level.Iteration)
+        public void setup(GameBenchmark benchmark) {
+            int size = benchmark.size;
+            engine = new TetrecsEngine(size, size);
+            Grid grid = engine.getGrid();
+            Boards.fill(grid, benchmark.fill, 42);
+            centre = size / 2;
+            for (int i = 0; i < size; i++) {
+                grid.set(i, centre, 1);
+                grid.set(centre, i, 1);
+            }
+            start = engine.save();
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            engine.load(start);
+        }
+    }
+}
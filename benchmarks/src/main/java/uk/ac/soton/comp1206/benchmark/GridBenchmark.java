@@ -0,0 +1,104 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the placement checks and writes of the Grid on partly filled boards of different sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    /**
+     * Width and height of the board
+     */
+    @Param({"5", "10", "32", "64"})
+    public int size;
+
+    /**
+     * Fraction of the board which is filled
+     */
+    @Param({"0.25", "0.5", "0.75"})
+    public double fill;
+
+    private Grid grid;
+    private GamePiece[] pieces;
+    private int[] moves;
+    private int[] legal;
+    private int next;
+
+    @Setup
+    public void setup() {
+        grid = new Grid(size, size);
+        Boards.fill(grid, fill, 42);
+        pieces = Boards.allPieces();
+
+        //Random (piece, x, y) triples to check, and the subset of those which can actually be played
+        Random random = new Random(7);
+        moves = new int[3 * 1024];
+        List<Integer> playable = new ArrayList<>();
+        for (int i = 0; i < moves.length; i += 3) {
+            moves[i] = random.nextInt(pieces.length);
+            moves[i + 1] = random.nextInt(size);
+            moves[i + 2] = random.nextInt(size);
+            if (grid.canPlayPiece(pieces[moves[i]], moves[i + 1], moves[i + 2])) {
+                playable.add(moves[i]);
+                playable.add(moves[i + 1]);
+                playable.add(moves[i + 2]);
+            }
+        }
+        legal = playable.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Benchmark
+    public boolean canPlayPiece() {
+        int i = next;
+        next = (next + 3) % moves.length;
+        return grid.canPlayPiece(pieces[moves[i]], moves[i + 1], moves[i + 2]);
+    }
+
+    @Benchmark
+    public int canPlayPieceEverywhere() {
+        GamePiece piece = pieces[next];
+        next = (next + 1) % pieces.length;
+
+        int count = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (grid.canPlayPiece(piece, x, y)) count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Play a piece and then empty its blocks again, so the board is the same for every invocation
+     */
+    @Benchmark
+    public boolean playPiece() {
+        if (legal.length == 0) return false;
+        int i = next;
+        next = (next + 3) % legal.length;
+
+        GamePiece piece = pieces[legal[i]];
+        int x = legal[i + 1];
+        int y = legal[i + 2];
+        boolean played = grid.playPiece(piece, x, y);
+        int[] offsets = piece.getOffsets();
+        for (int o = 0; o < offsets.length; o += 2) {
+            grid.set(x + offsets[o], y + offsets[o + 1], 0);
+        }
+        return played;
+    }
+}
@@ -0,0 +1,53 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks creating and rotating pieces, which happens on every spawn and every rotate input
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+    private GamePiece piece;
+    private int next;
+
+    @Setup
+    public void setup() {
+        piece = GamePiece.createPiece(1);
+    }
+
+    @Benchmark
+    public GamePiece createPiece() {
+        next = (next + 1) % GamePiece.PIECES;
+        return GamePiece.createPiece(next);
+    }
+
+    @Benchmark
+    public GamePiece createPieceRotated() {
+        next = (next + 1) % GamePiece.PIECES;
+        return GamePiece.createPiece(next, 3);
+    }
+
+    @Benchmark
+    public int[][] rotate() {
+        piece.rotate();
+        return piece.getBlocks();
+    }
+
+    /**
+     * Rotating anticlockwise, which the challenge scene does as three rotations
+     */
+    @Benchmark
+    public int[][] rotateThree() {
+        piece.rotate(3);
+        return piece.getBlocks();
+    }
+}
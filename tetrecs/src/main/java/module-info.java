@@ -13,5 +13,8 @@ module uk.ac.soton.comp1206 {
     exports uk.ac.soton.comp1206.event;
     exports uk.ac.soton.comp1206.component;
     exports uk.ac.soton.comp1206.game;
+    exports uk.ac.soton.comp1206.engine;
+    exports uk.ac.soton.comp1206.bot;
+    exports uk.ac.soton.comp1206.replay;
     exports uk.ac.soton.comp1206.utility;
 }
\ No newline at end of file
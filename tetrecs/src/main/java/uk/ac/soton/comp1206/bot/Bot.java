@@ -0,0 +1,362 @@
+package uk.ac.soton.comp1206.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.game.ClearedLines;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.LegalMoves;
+import uk.ac.soton.comp1206.game.PieceTable;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Bot picks placements by searching two pieces ahead: every placement of the current piece followed by every
+ * placement of the following piece, and the same again with the two swapped. Each position reached is scored by a
+ * Heuristic, and the first placement of the best line of play is chosen.
+ *
+ * The search is split across a ForkJoinPool. It works on a copy of the grid taken when the search starts, so it never
+ * touches the live game and can run off the JavaFX thread. Once the time budget has run out the remaining placements
+ * are only scored one piece deep, so a move is always found in roughly the budget however large the board.
+ */
+public class Bot implements Strategy {
+
+    private static final Logger logger = LogManager.getLogger(Bot.class);
+
+    /**
+     * Default time budget for a search, in milliseconds
+     */
+    public static final long DEFAULT_BUDGET = 200;
+
+    /**
+     * Number of first placements below which a search task stops splitting and runs them itself
+     */
+    private static final int THRESHOLD = 4;
+
+    /**
+     * Scores the positions reached by the search
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * Time budget for a search, in nanoseconds
+     */
+    private final long budget;
+
+    /**
+     * Pool the search runs on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a bot with the default heuristic and time budget, searching on the common pool
+     */
+    public Bot() {
+        this(new WeightedHeuristic(), DEFAULT_BUDGET);
+    }
+
+    /**
+     * Create a bot searching on the common pool, which uses every core
+     * @param heuristic scores the positions reached by the search
+     * @param budget time budget for a search, in milliseconds
+     */
+    public Bot(Heuristic heuristic, long budget) {
+        this(heuristic, budget, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a bot
+     * @param heuristic scores the positions reached by the search
+     * @param budget time budget for a search, in milliseconds
+     * @param pool pool the search runs on
+     */
+    public Bot(Heuristic heuristic, long budget, ForkJoinPool pool) {
+        this.heuristic = heuristic;
+        this.budget = TimeUnit.MILLISECONDS.toNanos(budget);
+        this.pool = pool;
+    }
+
+    /**
+     * Find the best move for the current state of an engine
+     * @param engine engine to search
+     * @return best move, or null if neither piece can be played
+     */
+    public Move findMove(GameEngine engine) {
+        return findMove(engine.getGrid(), engine.getCurrentPiece(), engine.getFollowingPiece());
+    }
+
+    /**
+     * Find the best move for the given grid and pieces
+     * @param grid grid to search
+     * @param current piece in play
+     * @param following piece which will be played next
+     * @return best move, or null if neither piece can be played
+     */
+    public Move findMove(Grid grid, GamePiece current, GamePiece following) {
+        return new Search(grid, current, following).run();
+    }
+
+    /**
+     * Start searching for the best move for the current state of an engine. The state is copied before this returns,
+     * so the game can carry on while the search runs.
+     * @param engine engine to search
+     * @return the best move once found, or null if neither piece can be played
+     */
+    public CompletableFuture<Move> findMoveAsync(GameEngine engine) {
+        Search search = new Search(engine.getGrid(), engine.getCurrentPiece(), engine.getFollowingPiece());
+        return CompletableFuture.supplyAsync(search::run, pool);
+    }
+
+    /**
+     * Find the best move for an engine and play it
+     * @param engine engine to play
+     * @return the move played, or null if neither piece can be played
+     */
+    public Move play(GameEngine engine) {
+        Move move = findMove(engine);
+        if (move == null) {
+            return null;
+        }
+        if (move.isSwap()) {
+            engine.swap();
+        }
+        engine.rotate(rotationsTo(engine.getCurrentPiece(), move));
+        engine.play(move.getX(), move.getY());
+        return move;
+    }
+
+    @Override
+    public boolean play(GameEngine engine, SplittableRandom random) {
+        return play(engine) != null;
+    }
+
+    /**
+     * Get the number of clockwise rotations which turn a piece to the rotation of a move
+     * @param piece piece to rotate
+     * @param move move to play
+     * @return number of rotations, from 0 to 3
+     */
+    public static int rotationsTo(GamePiece piece, Move move) {
+        return Math.floorMod(move.getRotation() - piece.getRotation(), PieceTable.ROTATIONS);
+    }
+
+    /**
+     * Pick the better of two moves, preferring the first when they score the same
+     * @param a first move
+     * @param b second move
+     * @return better move
+     */
+    private static Move better(Move a, Move b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return b.getValue() > a.getValue() ? b : a;
+    }
+
+    /**
+     * A single search from a snapshot of the game
+     */
+    private class Search {
+
+        /**
+         * Copy of the grid being searched
+         */
+        private final Grid root;
+
+        /**
+         * The piece in play, and the following piece or -1 if there is none
+         */
+        private final int current, following;
+
+        /**
+         * Every first placement, packed as swap, rotation, x and y
+         */
+        private int[] candidates = new int[64];
+
+        /**
+         * Number of first placements
+         */
+        private int count;
+
+        /**
+         * Time the search started
+         */
+        private long start;
+
+        /**
+         * Take a snapshot of the game and list the first placements
+         * @param grid grid to search
+         * @param current piece in play
+         * @param following piece which will be played next
+         */
+        Search(Grid grid, GamePiece current, GamePiece following) {
+            this.root = new Grid(grid);
+            this.current = current == null ? -1 : current.getType();
+            this.following = following == null ? -1 : following.getType();
+
+            LegalMoves moves = new LegalMoves();
+            addCandidates(false, this.current, moves);
+            if (this.following != this.current) {
+                addCandidates(true, this.following, moves);
+            }
+        }
+
+        /**
+         * Add every placement of a piece to the first placements
+         * @param swap whether the pieces are swapped first
+         * @param type piece type
+         * @param moves scratch legal moves
+         */
+        private void addCandidates(boolean swap, int type, LegalMoves moves) {
+            if (type < 0 || !root.findLegalMoves(type, moves)) {
+                return;
+            }
+            for (int rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+                if (!PieceTable.isDistinct(type, rotation)) continue;
+                for (int y = 0; y < root.getRows(); y++) {
+                    long bits = moves.getRow(rotation, y);
+                    while (bits != 0) {
+                        int x = Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        if (count == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, count * 2);
+                        }
+                        candidates[count++] = (swap ? 1 << 20 : 0) | rotation << 16 | x << 8 | y;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Check whether there is time left in the budget
+         * @return whether the budget has not run out
+         */
+        boolean inBudget() {
+            return System.nanoTime() - start < budget;
+        }
+
+        /**
+         * Run the search
+         * @return best move, or null if there are no placements
+         */
+        Move run() {
+            if (count == 0) {
+                return null;
+            }
+            start = System.nanoTime();
+            SearchTask task = new SearchTask(this, 0, count);
+            Move move = ForkJoinTask.getPool() == pool ? task.invoke() : pool.invoke(task);
+            logger.trace("Searched {} placements in {}ms: {}", count,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), move);
+            return move;
+        }
+    }
+
+    /**
+     * Searches a range of the first placements, splitting it in half until it is small enough. Tasks only live for
+     * one search and are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private class SearchTask extends RecursiveTask<Move> {
+
+        /**
+         * The search this task is part of
+         */
+        private final Search search;
+
+        /**
+         * Range of first placements, from lo inclusive to hi exclusive
+         */
+        private final int lo, hi;
+
+        /**
+         * Create a task for a range of first placements
+         * @param search the search this task is part of
+         * @param lo first placement
+         * @param hi end of the range
+         */
+        SearchTask(Search search, int lo, int hi) {
+            this.search = search;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Move compute() {
+            if (hi - lo > THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                SearchTask left = new SearchTask(search, lo, mid);
+                left.fork();
+                Move right = new SearchTask(search, mid, hi).compute();
+                return better(left.join(), right);
+            }
+
+            Grid first = new Grid(search.root);
+            Grid second = new Grid(search.root);
+            ClearedLines cleared = new ClearedLines();
+            LegalMoves moves = new LegalMoves();
+
+            Move best = null;
+            for (int i = lo; i < hi; i++) {
+                int candidate = search.candidates[i];
+                boolean swap = (candidate >>> 20) != 0;
+                int rotation = (candidate >>> 16) & 0xF;
+                int x = (candidate >>> 8) & 0xFF;
+                int y = candidate & 0xFF;
+                int type = swap ? search.following : search.current;
+                int next = swap ? search.current : search.following;
+
+                first.copyFrom(search.root);
+                int lines = place(first, type, rotation, x, y, cleared);
+                double value = heuristic.evaluate(first, lines);
+
+                //Look at every reply with the other piece while there is time left
+                if (next >= 0 && search.inBudget() && first.findLegalMoves(next, moves)) {
+                    value = Double.NEGATIVE_INFINITY;
+                    for (int r = 0; r < PieceTable.ROTATIONS; r++) {
+                        if (!PieceTable.isDistinct(next, r)) continue;
+                        for (int ny = 0; ny < first.getRows(); ny++) {
+                            long bits = moves.getRow(r, ny);
+                            while (bits != 0) {
+                                int nx = Long.numberOfTrailingZeros(bits);
+                                bits &= bits - 1;
+                                second.copyFrom(first);
+                                int more = place(second, next, r, nx, ny, cleared);
+                                value = Math.max(value, heuristic.evaluate(second, lines + more));
+                            }
+                        }
+                    }
+                }
+
+                best = better(best, new Move(swap, type, rotation, x, y, value));
+            }
+            return best;
+        }
+
+        /**
+         * Place a piece and clear any lines it completes
+         * @param grid grid to play on
+         * @param type piece type
+         * @param rotation rotation
+         * @param x column of the centre
+         * @param y row of the centre
+         * @param cleared scratch cleared lines
+         * @return number of lines cleared
+         */
+        private int place(Grid grid, int type, int rotation, int x, int y, ClearedLines cleared) {
+            GamePiece piece = GamePiece.createPiece(type, rotation);
+            grid.playPiece(piece, x, y);
+            int lines = grid.findLines(piece, x, y, cleared);
+            if (lines > 0) {
+                grid.clearLines(cleared);
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package uk.ac.soton.comp1206.bot;
+
+import uk.ac.soton.comp1206.game.Grid;
+
+/**
+ * A Heuristic scores a position reached by the bot's search. Higher scores are better.
+ *
+ * Heuristics are called from many search threads at once, so they must not keep any shared mutable state.
+ */
+@FunctionalInterface
+public interface Heuristic {
+
+    /**
+     * Score a position
+     * @param grid the grid after the placements being tried, with any full lines already cleared
+     * @param lines number of lines cleared by those placements
+     * @return score of the position
+     */
+    double evaluate(Grid grid, int lines);
+}
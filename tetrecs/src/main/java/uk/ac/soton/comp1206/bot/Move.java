@@ -0,0 +1,109 @@
+package uk.ac.soton.comp1206.bot;
+
+/**
+ * A placement chosen by the bot: whether to swap pieces first, which rotation to turn the piece to, and where to put
+ * its centre.
+ */
+public class Move {
+
+    /**
+     * Whether to swap the current and following pieces before playing
+     */
+    private final boolean swap;
+
+    /**
+     * The type of the piece to play
+     */
+    private final int type;
+
+    /**
+     * The rotation to play the piece in
+     */
+    private final int rotation;
+
+    /**
+     * Column of the centre of the piece
+     */
+    private final int x;
+
+    /**
+     * Row of the centre of the piece
+     */
+    private final int y;
+
+    /**
+     * The heuristic score of the best position this move leads to
+     */
+    private final double value;
+
+    /**
+     * Create a new move
+     * @param swap whether to swap pieces first
+     * @param type type of the piece to play
+     * @param rotation rotation to play the piece in
+     * @param x column of the centre
+     * @param y row of the centre
+     * @param value heuristic score of the move
+     */
+    public Move(boolean swap, int type, int rotation, int x, int y, double value) {
+        this.swap = swap;
+        this.type = type;
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+    }
+
+    /**
+     * Check whether to swap the current and following pieces before playing
+     * @return whether to swap
+     */
+    public boolean isSwap() {
+        return swap;
+    }
+
+    /**
+     * Get the type of the piece to play
+     * @return piece type
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Get the rotation to play the piece in
+     * @return rotation
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Get the column of the centre of the piece
+     * @return x
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the row of the centre of the piece
+     * @return y
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Get the heuristic score of the best position this move leads to
+     * @return value
+     */
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return (swap ? "swap, " : "") + "rotation " + rotation + " at " + x + ", " + y + " (" + value + ")";
+    }
+}
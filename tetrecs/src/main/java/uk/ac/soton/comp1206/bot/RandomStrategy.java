@@ -0,0 +1,68 @@
+package uk.ac.soton.comp1206.bot;
+
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.LegalMoves;
+import uk.ac.soton.comp1206.game.PieceTable;
+
+import java.util.SplittableRandom;
+
+/**
+ * A Strategy which plays a uniformly random legal move with either piece. Useful as a baseline to compare other
+ * strategies against.
+ */
+public class RandomStrategy implements Strategy {
+
+    /**
+     * Scratch legal moves for each thread
+     */
+    private static final ThreadLocal<LegalMoves[]> legalMoves =
+            ThreadLocal.withInitial(() -> new LegalMoves[] { new LegalMoves(), new LegalMoves() });
+
+    @Override
+    public boolean play(GameEngine engine, SplittableRandom random) {
+        LegalMoves[] moves = legalMoves.get();
+        int current = countMoves(engine.getGrid().findLegalMoves(engine.getCurrentPiece(), moves[0]), moves[0]);
+        int following = countMoves(engine.getGrid().findLegalMoves(engine.getFollowingPiece(), moves[1]), moves[1]);
+        if (current + following == 0) {
+            return false;
+        }
+
+        //Pick a move, then find it again in the bitsets
+        int pick = random.nextInt(current + following);
+        LegalMoves chosen = moves[0];
+        if (pick >= current) {
+            engine.swap();
+            chosen = moves[1];
+            pick -= current;
+        }
+        GamePiece piece = engine.getCurrentPiece();
+        for (int rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+            if (!PieceTable.isDistinct(chosen.getType(), rotation)) continue;
+            for (int y = 0; y < engine.getGrid().getRows(); y++) {
+                long bits = chosen.getRow(rotation, y);
+                int count = Long.bitCount(bits);
+                if (pick >= count) {
+                    pick -= count;
+                    continue;
+                }
+                while (pick-- > 0) {
+                    bits &= bits - 1;
+                }
+                engine.rotate(Math.floorMod(rotation - piece.getRotation(), PieceTable.ROTATIONS));
+                return engine.play(Long.numberOfTrailingZeros(bits), y);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the distinct legal moves found for a piece
+     * @param found whether any legal move was found
+     * @param moves the legal moves
+     * @return number of moves
+     */
+    private static int countMoves(boolean found, LegalMoves moves) {
+        return found ? moves.count() : 0;
+    }
+}
@@ -0,0 +1,21 @@
+package uk.ac.soton.comp1206.bot;
+
+import uk.ac.soton.comp1206.engine.GameEngine;
+
+import java.util.SplittableRandom;
+
+/**
+ * A Strategy plays moves in a headless game. Strategies are shared by every game in a tournament, so they must not
+ * keep any shared mutable state.
+ */
+@FunctionalInterface
+public interface Strategy {
+
+    /**
+     * Play one move with the current or following piece
+     * @param engine engine to play
+     * @param random random number generator for this game
+     * @return whether a piece was played, false if neither piece can go anywhere
+     */
+    boolean play(GameEngine engine, SplittableRandom random);
+}
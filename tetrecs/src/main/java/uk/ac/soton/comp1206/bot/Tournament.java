@@ -0,0 +1,336 @@
+package uk.ac.soton.comp1206.bot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.engine.TetrecsEngine;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The Tournament plays batches of complete headless games with the standard TetrECS rules and reports how each
+ * strategy did: the spread of scores, and how many games and moves were played per second.
+ *
+ * Games run in parallel on a ForkJoinPool. No clock is involved; instead each move takes a simulated think time, and if
+ * that is longer than the timer delay for the current level the piece runs out of time and costs a life, just as it
+ * would in a real game. A strategy which cannot place either piece also waits out the timer. Games which never end are
+ * stopped after a maximum number of moves.
+ *
+ * Every game gets its own random number generators, split from a single seed before the games start, so results can
+ * be reproduced and every strategy is dealt the same sequence of pieces.
+ */
+public class Tournament {
+
+    private static final Logger logger = LogManager.getLogger(Tournament.class);
+
+    /**
+     * Number of buckets in the printed score histogram
+     */
+    private static final int BUCKETS = 10;
+
+    /**
+     * Width of the longest bar in the printed score histogram
+     */
+    private static final int BAR = 40;
+
+    /**
+     * Number of games each strategy plays
+     */
+    private final int games;
+
+    /**
+     * Width and height of the grid
+     */
+    private final int size;
+
+    /**
+     * Number of moves after which a game is stopped
+     */
+    private final int maxMoves;
+
+    /**
+     * Mean simulated think time per move, in milliseconds
+     */
+    private final double thinkTime;
+
+    /**
+     * Seed the random number generators of every game are split from
+     */
+    private final long seed;
+
+    /**
+     * Pool the games run on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a new tournament
+     * @param games number of games each strategy plays
+     * @param size width and height of the grid
+     * @param maxMoves number of moves after which a game is stopped
+     * @param thinkTime mean simulated think time per move, in milliseconds
+     * @param seed seed for the random number generators
+     * @param pool pool the games run on
+     */
+    public Tournament(int games, int size, int maxMoves, double thinkTime, long seed, ForkJoinPool pool) {
+        if (games < 1) {
+            throw new IllegalArgumentException("A tournament needs at least one game");
+        }
+        this.games = games;
+        this.size = size;
+        this.maxMoves = maxMoves;
+        this.thinkTime = thinkTime;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Play every game with one strategy
+     * @param name name of the strategy
+     * @param strategy the strategy to play
+     * @return the results
+     */
+    public Result run(String name, Strategy strategy) {
+        logger.info("Playing " + games + " games with " + name);
+
+        SplittableRandom master = new SplittableRandom(seed);
+        long[] pieces = new long[games];
+        SplittableRandom[] moves = new SplittableRandom[games];
+        for (int i = 0; i < games; i++) {
+            pieces[i] = master.nextLong();
+            moves[i] = master.split();
+        }
+
+        Result result = new Result(name, games);
+        long start = System.nanoTime();
+        pool.submit(() -> IntStream.range(0, games).parallel()
+                .forEach(i -> play(i, strategy, pieces[i], moves[i], result))).join();
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Play a single game
+     * @param game index of the game
+     * @param strategy the strategy to play
+     * @param pieces seed for the pieces
+     * @param random random number generator for the strategy and think times
+     * @param result results to record the game in
+     */
+    private void play(int game, Strategy strategy, long pieces, SplittableRandom random, Result result) {
+        TetrecsEngine engine = new TetrecsEngine(size, size, pieces);
+        engine.start();
+
+        int moves = 0;
+        while (!engine.isGameOver() && moves < maxMoves) {
+            double think = thinkTime > 0 ? -thinkTime * Math.log(1 - random.nextDouble()) : 0;
+            if (think < engine.getTimerDelay() && strategy.play(engine, random)) {
+                moves++;
+            } else {
+                engine.timerExpired();
+            }
+        }
+
+        result.scores[game] = engine.getScore();
+        result.moves[game] = moves;
+        result.levels[game] = engine.getLevel();
+        result.finished[game] = engine.isGameOver();
+    }
+
+    /**
+     * Create one of the built in strategies
+     * @param name random, greedy or search
+     * @param budget time budget for a search, in milliseconds
+     * @param pool pool searches run on
+     * @return the strategy
+     */
+    public static Strategy strategy(String name, long budget, ForkJoinPool pool) {
+        switch (name) {
+            case "random":
+                return new RandomStrategy();
+            case "greedy":
+                return new Bot(new WeightedHeuristic(), 0, pool);
+            case "search":
+                return new Bot(new WeightedHeuristic(), budget, pool);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    /**
+     * Run a tournament from the command line
+     * @param args options, each followed by its value: --games, --size, --max-moves, --think, --seed, --threads,
+     *             --budget and --strategies, a comma separated list of random, greedy and search
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("--games", "1000");
+        options.put("--size", "5");
+        options.put("--max-moves", "500");
+        options.put("--think", "0");
+        options.put("--seed", "1");
+        options.put("--threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        options.put("--budget", String.valueOf(Long.MAX_VALUE));
+        options.put("--strategies", "random,greedy,search");
+        for (int i = 0; i < args.length; i += 2) {
+            if (!options.containsKey(args[i]) || i + 1 == args.length) {
+                throw new IllegalArgumentException("Usage: Tournament " + String.join(" ", options.keySet()));
+            }
+            options.put(args[i], args[i + 1]);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Integer.parseInt(options.get("--threads")));
+        Tournament tournament = new Tournament(
+                Integer.parseInt(options.get("--games")),
+                Integer.parseInt(options.get("--size")),
+                Integer.parseInt(options.get("--max-moves")),
+                Double.parseDouble(options.get("--think")),
+                Long.parseLong(options.get("--seed")),
+                pool);
+        System.out.println("Tournament " + options);
+
+        for (String name : options.get("--strategies").split(",")) {
+            Strategy strategy = strategy(name.trim(), Long.parseLong(options.get("--budget")), pool);
+            tournament.run(name.trim(), strategy).print(System.out);
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * The results of one strategy in a tournament
+     */
+    public static class Result {
+
+        /**
+         * Name of the strategy
+         */
+        private final String name;
+
+        /**
+         * Final score of each game
+         */
+        private final int[] scores;
+
+        /**
+         * Number of pieces placed in each game
+         */
+        private final int[] moves;
+
+        /**
+         * Final level of each game
+         */
+        private final int[] levels;
+
+        /**
+         * Whether each game ended, rather than being stopped at the move limit
+         */
+        private final boolean[] finished;
+
+        /**
+         * Time taken to play every game, in nanoseconds
+         */
+        private long nanos;
+
+        /**
+         * Create an empty result
+         * @param name name of the strategy
+         * @param games number of games
+         */
+        Result(String name, int games) {
+            this.name = name;
+            this.scores = new int[games];
+            this.moves = new int[games];
+            this.levels = new int[games];
+            this.finished = new boolean[games];
+        }
+
+        /**
+         * Get the final score of each game
+         * @return scores
+         */
+        public int[] getScores() {
+            return scores;
+        }
+
+        /**
+         * Get the number of pieces placed in each game
+         * @return moves
+         */
+        public int[] getMoves() {
+            return moves;
+        }
+
+        /**
+         * Get the mean final score
+         * @return mean score
+         */
+        public double meanScore() {
+            return Arrays.stream(scores).average().orElse(0);
+        }
+
+        /**
+         * Get the number of games played per second
+         * @return games per second
+         */
+        public double gamesPerSecond() {
+            return scores.length / (nanos / 1e9);
+        }
+
+        /**
+         * Get the number of pieces placed per second
+         * @return moves per second
+         */
+        public double movesPerSecond() {
+            return Arrays.stream(moves).asLongStream().sum() / (nanos / 1e9);
+        }
+
+        /**
+         * Print a summary of the results
+         * @param out stream to print to
+         */
+        public void print(PrintStream out) {
+            int[] sorted = scores.clone();
+            Arrays.sort(sorted);
+            double mean = meanScore();
+            double variance = Arrays.stream(scores).mapToDouble(s -> (s - mean) * (s - mean)).average().orElse(0);
+            long stopped = IntStream.range(0, finished.length).filter(i -> !finished[i]).count();
+
+            out.printf("%s: %d games in %.2fs, %.0f games/s, %.0f moves/s%n",
+                    name, scores.length, nanos / 1e9, gamesPerSecond(), movesPerSecond());
+            out.printf("  score mean %.0f, sd %.0f, min %d, p10 %d, p50 %d, p90 %d, max %d%n",
+                    mean, Math.sqrt(variance), sorted[0], percentile(sorted, 10), percentile(sorted, 50),
+                    percentile(sorted, 90), sorted[sorted.length - 1]);
+            out.printf("  moves mean %.1f, level mean %.2f, %d stopped at the move limit%n",
+                    Arrays.stream(moves).average().orElse(0), Arrays.stream(levels).average().orElse(0), stopped);
+
+            //Histogram of scores in equal width buckets
+            int min = sorted[0];
+            int width = Math.max(1, (sorted[sorted.length - 1] - min) / BUCKETS + 1);
+            int[] buckets = new int[BUCKETS];
+            for (int score : scores) {
+                buckets[(score - min) / width]++;
+            }
+            int most = Arrays.stream(buckets).max().orElse(1);
+            for (int i = 0; i < BUCKETS; i++) {
+                out.printf("  %8d - %-8d %6d %s%n", min + i * width, min + (i + 1) * width - 1, buckets[i],
+                        "#".repeat((int) ((long) buckets[i] * BAR / most)));
+            }
+        }
+
+        /**
+         * Get a percentile of a sorted array using the nearest rank
+         * @param sorted sorted values
+         * @param percent percentile to get
+         * @return the value at that percentile
+         */
+        private static int percentile(int[] sorted, int percent) {
+            int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package uk.ac.soton.comp1206.bot;
+
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.LegalMoves;
+
+/**
+ * A Heuristic which adds up weighted features of a position: the lines cleared, the holes left behind and the
+ * mobility of the board.
+ *
+ * A hole is an empty block boxed in on all four sides by filled blocks or the edge of the board, so only a single
+ * block piece can ever fill it. Mobility is the number of distinct placements available to every type of piece, which
+ * keeps the board open for whatever comes next.
+ */
+public class WeightedHeuristic implements Heuristic {
+
+    /**
+     * Weight for each line cleared
+     */
+    public static final double LINES = 100;
+
+    /**
+     * Weight for each hole
+     */
+    public static final double HOLES = -30;
+
+    /**
+     * Weight for each placement available to the next pieces
+     */
+    public static final double MOBILITY = 1;
+
+    /**
+     * Scratch legal moves for each search thread
+     */
+    private static final ThreadLocal<LegalMoves> legalMoves = ThreadLocal.withInitial(LegalMoves::new);
+
+    /**
+     * Weight for each line cleared
+     */
+    private final double linesWeight;
+
+    /**
+     * Weight for each hole
+     */
+    private final double holesWeight;
+
+    /**
+     * Weight for each placement available to the next pieces
+     */
+    private final double mobilityWeight;
+
+    /**
+     * Create a heuristic with the default weights
+     */
+    public WeightedHeuristic() {
+        this(LINES, HOLES, MOBILITY);
+    }
+
+    /**
+     * Create a heuristic with the given weights
+     * @param linesWeight weight for each line cleared
+     * @param holesWeight weight for each hole
+     * @param mobilityWeight weight for each placement available to the next pieces
+     */
+    public WeightedHeuristic(double linesWeight, double holesWeight, double mobilityWeight) {
+        this.linesWeight = linesWeight;
+        this.holesWeight = holesWeight;
+        this.mobilityWeight = mobilityWeight;
+    }
+
+    @Override
+    public double evaluate(Grid grid, int lines) {
+        double score = linesWeight * lines;
+        if (holesWeight != 0) {
+            score += holesWeight * holes(grid);
+        }
+        if (mobilityWeight != 0) {
+            score += mobilityWeight * mobility(grid, legalMoves.get());
+        }
+        return score;
+    }
+
+    /**
+     * Count the empty blocks which are boxed in on all four sides
+     * @param grid grid to check
+     * @return number of holes
+     */
+    public static int holes(Grid grid) {
+        int cols = grid.getCols();
+        int rows = grid.getRows();
+        long all = cols == Long.SIZE ? -1L : (1L << cols) - 1;
+        long leftEdge = 1L;
+        long rightEdge = 1L << (cols - 1);
+
+        int holes = 0;
+        for (int y = 0; y < rows; y++) {
+            long bits = grid.getRowBits(y);
+            long empty = ~bits & all;
+            if (empty == 0) continue;
+            long left = (bits << 1) | leftEdge;
+            long right = (bits >>> 1) | rightEdge;
+            long up = y == 0 ? all : grid.getRowBits(y - 1);
+            long down = y == rows - 1 ? all : grid.getRowBits(y + 1);
+            holes += Long.bitCount(empty & left & right & up & down);
+        }
+        return holes;
+    }
+
+    /**
+     * Count the distinct placements available to every type of piece
+     * @param grid grid to check
+     * @param moves scratch legal moves
+     * @return number of placements
+     */
+    public static int mobility(Grid grid, LegalMoves moves) {
+        int mobility = 0;
+        for (int type = 0; type < GamePiece.PIECES; type++) {
+            if (grid.findLegalMoves(type, moves)) {
+                mobility += moves.count();
+            }
+        }
+        return mobility;
+    }
+}
@@ -0,0 +1,219 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+import javafx.stage.Window;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BlockSprites is an atlas of every block drawn once at one size, so that painting a block is a single drawImage.
+ *
+ * Drawing a coloured block needs a gradient and a drop shadow effect, which is one of the slowest things a canvas can
+ * do. Instead, the empty block, every colour in GameBlock.COLOURS, the hover highlight and the centre mark are drawn
+ * once into one image when a block size is first used, and copied out of it from then on.
+ *
+ * Atlases are kept per block size and output scale, so a board which is resized, or moved to a screen with a different
+ * scale, gets a new atlas drawn at the new resolution. Only the most recently used sizes are kept. Everything here must
+ * be used on the JavaFX thread.
+ */
+public class BlockSprites {
+
+    private static final Logger logger = LogManager.getLogger(BlockSprites.class);
+
+    /**
+     * Sprite of the hover highlight. Sprites below this are the block values, 0 being empty.
+     */
+    public static final int HOVER = GameBlock.COLOURS.length;
+
+    /**
+     * Sprite of the mark on the centre of a piece
+     */
+    public static final int CENTER = HOVER + 1;
+
+    /**
+     * Number of sprites in an atlas
+     */
+    private static final int SPRITES = CENTER + 1;
+
+    /**
+     * Most atlases kept at once
+     */
+    private static final int MAX_ATLASES = 16;
+
+    /**
+     * Atlases in use, most recently used last
+     */
+    private static final List<BlockSprites> atlases = new ArrayList<>();
+
+    /**
+     * Width and height of a block, in layout units
+     */
+    private final double width, height;
+
+    /**
+     * Output scale the atlas was drawn for
+     */
+    private final double scale;
+
+    /**
+     * Width and height of a sprite, in pixels
+     */
+    private final int spriteWidth, spriteHeight;
+
+    /**
+     * The drawn sprites, side by side
+     */
+    private final WritableImage atlas;
+
+    /**
+     * Draw the atlas for a block size
+     * @param width width of a block
+     * @param height height of a block
+     * @param scale output scale to draw for
+     */
+    private BlockSprites(double width, double height, double scale) {
+        this.width = width;
+        this.height = height;
+        this.scale = scale;
+        this.spriteWidth = Math.max(1, (int) Math.ceil(width * scale));
+        this.spriteHeight = Math.max(1, (int) Math.ceil(height * scale));
+
+        Canvas canvas = new Canvas(spriteWidth * SPRITES, spriteHeight);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double w = spriteWidth / scale;
+        double h = spriteHeight / scale;
+        gc.scale(scale, scale);
+        for (int value = 0; value < GameBlock.COLOURS.length; value++) {
+            double x = value * w;
+            if (value == 0) {
+                renderEmpty(gc, x, 0, w, h);
+            } else {
+                renderColor(gc, x, 0, w, h, GameBlock.COLOURS[value]);
+            }
+        }
+        gc.setFill(Color.color(1, 1, 1, 0.5));
+        gc.fillRect(HOVER * w, 0, w, h);
+        gc.setFill(Color.web("White", 0.8));
+        gc.fillOval(CENTER * w + w / 4, h / 4, w / 2, h / 2);
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        this.atlas = canvas.snapshot(parameters, null);
+        logger.debug("Drew block sprites at {} x {}, scale {}", width, height, scale);
+    }
+
+    /**
+     * Get the atlas for a block size, drawing it if it is not already cached
+     * @param width width of a block
+     * @param height height of a block
+     * @param scale output scale to draw for
+     * @return block sprites
+     */
+    public static BlockSprites get(double width, double height, double scale) {
+        for (int i = atlases.size() - 1; i >= 0; i--) {
+            BlockSprites sprites = atlases.get(i);
+            if (sprites.width == width && sprites.height == height && sprites.scale == scale) {
+                if (i != atlases.size() - 1) {
+                    atlases.add(atlases.remove(i));
+                }
+                return sprites;
+            }
+        }
+        if (atlases.size() == MAX_ATLASES) {
+            atlases.remove(0);
+        }
+        BlockSprites sprites = new BlockSprites(width, height, scale);
+        atlases.add(sprites);
+        return sprites;
+    }
+
+    /**
+     * Copy a sprite onto a canvas. The sprite is blended over whatever is already there.
+     * @param gc graphics context of the canvas
+     * @param sprite block value, HOVER or CENTER
+     * @param x left of the block
+     * @param y top of the block
+     */
+    public void draw(GraphicsContext gc, int sprite, double x, double y) {
+        gc.drawImage(atlas, sprite * spriteWidth, 0, spriteWidth, spriteHeight, x, y, width, height);
+    }
+
+    /**
+     * Get the output scale of the screen a node is shown on
+     * @param node node to check
+     * @return output scale, or 1 if the node is not shown yet
+     */
+    public static double outputScale(Node node) {
+        if (node.getScene() == null) {
+            return 1;
+        }
+        Window window = node.getScene().getWindow();
+        return window == null ? 1 : window.getOutputScaleX();
+    }
+
+    /**
+     * Draw an empty block
+     * @param gc graphics context of the canvas
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
+     */
+    private static void renderEmpty(GraphicsContext gc, double x, double y, double width, double height) {
+        //Fill
+        gc.setFill(Color.web("BLACK", 0.5));
+        gc.fillRect(x, y, width, height);
+
+        //Border
+        gc.setStroke(Color.web("WHITE", 0.5));
+        gc.strokeRect(x, y, width, height);
+    }
+
+    /**
+     * Draw a block with the given colour, clipped to its rectangle so that the shadow stays inside its sprite
+     * @param gc graphics context of the canvas
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
+     * @param color the colour to draw
+     */
+    private static void renderColor(GraphicsContext gc, double x, double y, double width, double height, Color color) {
+        gc.save();
+        gc.beginPath();
+        gc.rect(x, y, width, height);
+        gc.clip();
+
+        //Gradient effect where the color transitions from light colour in the center to darker in the corner of block
+        RadialGradient gradient = new RadialGradient(
+                0, 0, x + width / 2, y + height / 2, width / 2, false,
+                CycleMethod.NO_CYCLE,
+                new Stop(0, color.deriveColor(0, 1, 1, 0.8)),
+                new Stop(1, color.deriveColor(0, 1, 1, 0.5))
+        );
+        gc.setFill(gradient);
+
+        //Set the shadow effect around the block
+        gc.setEffect(new DropShadow(5, Color.BLACK));
+        gc.fillRect(x, y, width, height);
+        gc.setEffect(null);
+
+        //Border
+        gc.setStroke(Color.web("WHITE", 0.5));
+        gc.strokeRect(x, y, width, height);
+
+        gc.restore();
+    }
+}
@@ -0,0 +1,263 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BoardAnimator is the single frame driver for a GameBoard. It keeps track of which blocks need redrawing and of
+ * every effect running on the board, and on each pulse it moves the effects on and asks the board to redraw just the
+ * blocks which changed.
+ *
+ * Effects are timed from the pulse time rather than counted in frames, so they take the same time however fast the
+ * screen refreshes. The animator only runs while there is something to do, and stops itself as soon as the board is
+ * still, so an idle board costs nothing per frame and a large clear is one timer however many blocks it covers.
+ */
+public class BoardAnimator extends AnimationTimer {
+
+    private static final Logger logger = LogManager.getLogger(BoardAnimator.class);
+
+    /**
+     * Time the flash on a cleared block takes to fade out
+     */
+    public static final long FADE_TIME = TimeUnit.MILLISECONDS.toNanos(200);
+
+    /**
+     * Time the hover highlight takes to fade in
+     */
+    public static final long HOVER_TIME = TimeUnit.MILLISECONDS.toNanos(80);
+
+    /**
+     * Start time of an effect which is not running
+     */
+    private static final long NONE = Long.MIN_VALUE;
+
+    /**
+     * Start time of an effect which starts on the next pulse
+     */
+    private static final long PENDING = Long.MIN_VALUE + 1;
+
+    /**
+     * Redraws a single block
+     */
+    public interface CellPainter {
+
+        /**
+         * Redraw a block with its effects
+         * @param x column
+         * @param y row
+         * @param fade opacity of the fade out flash, 0 if the block is not fading
+         * @param hover opacity of the hover highlight, 0 if the block is not highlighted
+         */
+        void paintCell(int x, int y, double fade, double hover);
+    }
+
+    /**
+     * Number of columns and rows on the board
+     */
+    private final int cols, rows;
+
+    /**
+     * Redraws the blocks
+     */
+    private final CellPainter painter;
+
+    /**
+     * Blocks waiting to be redrawn, one bit per column for each row
+     */
+    private final long[] dirty;
+
+    /**
+     * Time each block started fading out, or NONE
+     */
+    private final long[] fadeStart;
+
+    /**
+     * Number of blocks which are fading out
+     */
+    private int fading;
+
+    /**
+     * Index of the highlighted block, or -1 if none is
+     */
+    private int hovered = -1;
+
+    /**
+     * Time the highlight started fading in, or NONE once it is fully in
+     */
+    private long hoverStart = NONE;
+
+    /**
+     * Whether the animator has been started and not stopped since
+     */
+    private boolean running;
+
+    /**
+     * Create an animator for a board
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param painter redraws the blocks
+     */
+    public BoardAnimator(int cols, int rows, CellPainter painter) {
+        this.cols = cols;
+        this.rows = rows;
+        this.painter = painter;
+        this.dirty = new long[rows];
+        this.fadeStart = new long[cols * rows];
+        Arrays.fill(fadeStart, NONE);
+    }
+
+    /**
+     * Redraw a block on the next pulse, removing the highlight if it has it
+     * @param x column
+     * @param y row
+     */
+    public void repaint(int x, int y) {
+        if (hovered == y * cols + x) {
+            hovered = -1;
+            hoverStart = NONE;
+        }
+        markDirty(x, y);
+    }
+
+    /**
+     * Redraw every block on the next pulse
+     */
+    public void repaintAll() {
+        Arrays.fill(dirty, cols == Long.SIZE ? -1L : (1L << cols) - 1);
+        wake();
+    }
+
+    /**
+     * Move the highlight to a block, fading it in
+     * @param x column
+     * @param y row
+     */
+    public void hover(int x, int y) {
+        int index = y * cols + x;
+        if (hovered == index) {
+            return;
+        }
+        clearHover();
+        hovered = index;
+        hoverStart = PENDING;
+        markDirty(x, y);
+    }
+
+    /**
+     * Remove the highlight from whichever block has it
+     */
+    public void clearHover() {
+        if (hovered >= 0) {
+            repaint(hovered % cols, hovered / cols);
+        }
+    }
+
+    /**
+     * Get the highlighted block
+     * @return index of the block, y * cols + x, or -1 if none is highlighted
+     */
+    public int getHovered() {
+        return hovered;
+    }
+
+    /**
+     * Start the fade out flash on a block, restarting it if it is already fading
+     * @param x column
+     * @param y row
+     */
+    public void fade(int x, int y) {
+        int index = y * cols + x;
+        if (fadeStart[index] == NONE) {
+            fading++;
+        }
+        fadeStart[index] = PENDING;
+        markDirty(x, y);
+    }
+
+    /**
+     * Check whether anything is animating or waiting to be drawn
+     * @return whether the animator is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        running = false;
+    }
+
+    @Override
+    public void handle(long now) {
+        //Move the effects on, finishing any which have run their time
+        if (fading > 0) {
+            for (int i = 0; i < fadeStart.length; i++) {
+                if (fadeStart[i] == NONE) {
+                    continue;
+                }
+                if (fadeStart[i] == PENDING) {
+                    fadeStart[i] = now;
+                } else if (now - fadeStart[i] >= FADE_TIME) {
+                    fadeStart[i] = NONE;
+                    fading--;
+                }
+                dirty[i / cols] |= 1L << (i % cols);
+            }
+        }
+        if (hovered >= 0 && hoverStart != NONE) {
+            if (hoverStart == PENDING) {
+                hoverStart = now;
+            }
+            dirty[hovered / cols] |= 1L << (hovered % cols);
+        }
+
+        for (int y = 0; y < rows; y++) {
+            long bits = dirty[y];
+            dirty[y] = 0;
+            while (bits != 0) {
+                int x = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int index = y * cols + x;
+                double fade = fadeStart[index] == NONE ? 0 : 1 - (double) (now - fadeStart[index]) / FADE_TIME;
+                double hover = 0;
+                if (index == hovered) {
+                    hover = hoverStart == NONE ? 1 : Math.min(1, (double) (now - hoverStart) / HOVER_TIME);
+                }
+                painter.paintCell(x, y, fade, hover);
+            }
+        }
+
+        if (hovered >= 0 && hoverStart != NONE && now - hoverStart >= HOVER_TIME) {
+            hoverStart = NONE;
+        }
+        if (fading == 0 && hoverStart == NONE) {
+            logger.trace("Board is still");
+            stop();
+        }
+    }
+
+    /**
+     * Mark a block as needing to be redrawn
+     * @param x column
+     * @param y row
+     */
+    private void markDirty(int x, int y) {
+        dirty[y] |= 1L << x;
+        wake();
+    }
+
+    /**
+     * Make sure the animator is running
+     */
+    private void wake() {
+        if (!running) {
+            running = true;
+            start();
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package uk.ac.soton.comp1206.component;
 
-import javafx.animation.AnimationTimer;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.effect.*;
 import javafx.scene.paint.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -21,6 +19,12 @@ import uk.ac.soton.comp1206.game.GamePiece;
  * Displays an empty square (when the value is 0) or a coloured square depending on value.
  *
  * The GameBlock value should be bound to a corresponding block in the Grid model.
+ *
+ * Painting, highlighting and fading a block all go through its GameBoard, which redraws it on the next pulse. When the
+ * board draws every block onto one shared canvas, the block is never added to the scene and stays zero sized, and only
+ * holds the value. The drawing itself is done by static methods shared by both modes, so the blocks look the same
+ * either way. These copy pre-drawn sprites out of a BlockSprites atlas rather than drawing gradients and shadows every
+ * time.
  */
 public class GameBlock extends Canvas {
 
@@ -29,7 +33,6 @@ public class GameBlock extends Canvas {
 
     private boolean center = false;
 
-    private double opacity;
     /**
      * The set of colours for different pieces
      */
@@ -86,12 +89,31 @@ public class GameBlock extends Canvas {
      * @param height the height of the canvas to render
      */
     public GameBlock(GameBoard gameBoard, int x, int y, double width, double height) {
+        this(gameBoard, x, y, width, height, false);
+    }
+
+    /**
+     * Create a new single Game Block
+     * @param gameBoard the board this block belongs to
+     * @param x the column the block exists in
+     * @param y the row the block exists in
+     * @param width the width of the block
+     * @param height the height of the block
+     * @param boardDrawn whether the board draws this block onto its own canvas, rather than the block having its own
+     */
+    GameBlock(GameBoard gameBoard, int x, int y, double width, double height, boolean boardDrawn) {
         this.gameBoard = gameBoard;
         this.width = width;
         this.height = height;
         this.x = x;
         this.y = y;
 
+        //When the value property is updated, call the internal updateValue method
+        value.addListener(this::updateValue);
+        if (boardDrawn) {
+            return;
+        }
+
 
         //A canvas needs a fixed width and height
         setWidth(width);
@@ -100,9 +122,6 @@ public class GameBlock extends Canvas {
         //Do an initial paint
         paint();
 
-        //When the value property is updated, call the internal updateValue method
-        value.addListener(this::updateValue);
-
         this.setOnMouseEntered((e) ->
             {
                hover();
@@ -117,9 +136,7 @@ public class GameBlock extends Canvas {
      * Hover the block with white colour
      */
     public void hover() {
-        var gc = getGraphicsContext2D();
-        gc.setFill(Color.color(1, 1, 1, 0.5));
-        gc.fillRect(0, 0, width, height);
+        gameBoard.hover(x, y);
     }
 
 
@@ -138,75 +155,95 @@ public class GameBlock extends Canvas {
      * Handle painting of the block canvas
      */
     public void paint() {
-        //If the block is empty, paint as empty
-        if(value.get() == 0) {
-            paintEmpty();
+        gameBoard.repaint(x, y);
+    }
+
+    /**
+     * Draw this block onto its own canvas with its effects. Called by the board.
+     * @param fade opacity of the fade out flash
+     * @param hover opacity of the hover highlight
+     */
+    void paintFrame(double fade, double hover) {
+        paintFrame(getGraphicsContext2D(), 0, 0, width, height, value.get(), center, fade, hover,
+                BlockSprites.outputScale(this));
+    }
+
+    /**
+     * Draw a block with its effects into a rectangle of a canvas
+     * @param gc graphics context of the canvas
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
+     * @param value value of the block, 0 for empty
+     * @param center whether to mark the block as the centre of a piece
+     * @param fade opacity of the fade out flash, 0 if it is not fading
+     * @param hover opacity of the hover highlight, 0 if it is not highlighted
+     * @param scale output scale of the canvas
+     */
+    static void paintFrame(GraphicsContext gc, double x, double y, double width, double height, int value,
+                           boolean center, double fade, double hover, double scale) {
+        if (fade > 0) {
+            paintFade(gc, x, y, width, height, fade, scale);
         } else {
-            //If the block is not empty, paint with the colour represented by the value
-            paintColor(COLOURS[value.get()]);
+            paint(gc, x, y, width, height, value, center, scale);
         }
-        if(center){
-            GraphicsContext gc = getGraphicsContext2D();
-            gc.setFill(Color.web("White", 0.8));
-            gc.fillOval(this.width/4,this.height/4,this.width/2,this.height/2);
-
+        if (hover > 0) {
+            gc.setGlobalAlpha(hover);
+            paintHover(gc, x, y, width, height, scale);
+            gc.setGlobalAlpha(1);
         }
     }
 
     /**
-     * Paint this canvas empty
+     * Paint a block with the given value into a rectangle of a canvas
+     * @param gc graphics context of the canvas
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
+     * @param value value of the block, 0 for empty
+     * @param center whether to mark the block as the centre of a piece
+     * @param scale output scale of the canvas
      */
-    private void paintEmpty() {
-        var gc = getGraphicsContext2D();
-
-        //Clear
-        gc.clearRect(0,0,width,height);
-
-        //Fill
-        gc.setFill(Color.web("BLACK", 0.5));
-        gc.fillRect(0,0, width, height);
-
-        //Border
-        gc.setStroke(Color.web("WHITE", 0.5));
-        gc.strokeRect(0,0,width,height);
+    static void paint(GraphicsContext gc, double x, double y, double width, double height, int value, boolean center,
+                      double scale) {
+        BlockSprites sprites = BlockSprites.get(width, height, scale);
+        gc.clearRect(x, y, width, height);
+        sprites.draw(gc, value, x, y);
+        if(center){
+            sprites.draw(gc, BlockSprites.CENTER, x, y);
+        }
     }
 
     /**
-     * Paint this canvas with the given colour
-     * @param colour the colour to paint
+     * Paint the hover highlight over a block
+     * @param gc graphics context of the canvas
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
+     * @param scale output scale of the canvas
      */
-    private void paintColor(Paint colour) {
-        var gc = getGraphicsContext2D();
-
-        //Clear
-        gc.clearRect(0,0,width,height);
-
-        //Colour fill
-        gc.setFill(colour);
-
-        //Gradient effect where the color transitions from light colour in the center to darker in the corner of block
-        Color color = Color.valueOf(colour.toString());
-        RadialGradient gradient = new RadialGradient(
-                0, 0, width / 2, height / 2, width / 2, false,
-                CycleMethod.NO_CYCLE,
-                new Stop(0,color.deriveColor(0, 1, 1, 0.8)),
-                new Stop(1, color.deriveColor(0, 1, 1, 0.5))
-        );
-        gc.setFill(gradient);
-
-        //Set the shadow effect around the block
-        DropShadow dropShadow = new DropShadow(5, Color.BLACK);
-        gc.setEffect(dropShadow);
-
-        gc.fillRect(0,0, width, height);
-
-        //Border
-        gc.setStroke(Color.web("WHITE", 0.5));
-        gc.strokeRect(0,0,width,height);
-
-        gc.setGlobalAlpha(1.0);
-        gc.setEffect(null);
+    static void paintHover(GraphicsContext gc, double x, double y, double width, double height, double scale) {
+        BlockSprites.get(width, height, scale).draw(gc, BlockSprites.HOVER, x, y);
+    }
 
+    /**
+     * Paint one frame of the fade out animation over an empty block
+     * @param gc graphics context of the canvas
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
+     * @param opacity opacity of the flash, from 1 down to 0
+     * @param scale output scale of the canvas
+     */
+    static void paintFade(GraphicsContext gc, double x, double y, double width, double height, double opacity,
+                          double scale) {
+        paint(gc, x, y, width, height, 0, false, scale);
+        gc.setFill(Color.WHITE.deriveColor(0, 0, 0.5, opacity));
+        gc.fillRect(x, y, width, height);
     }
 
 
@@ -244,6 +281,14 @@ public class GameBlock extends Canvas {
     }
 
 
+    /**
+     * Check whether this block is marked as the centre of a piece
+     * @return whether it is the centre
+     */
+    boolean isCenter() {
+        return center;
+    }
+
     /**
      * set the center to the block
      */
@@ -257,23 +302,6 @@ public class GameBlock extends Canvas {
      * Clear the block with the animation
      */
     public void fadeOut() {
-         opacity = 1.0;
-
-        AnimationTimer animationTimer = new AnimationTimer() {
-            @Override
-            public void handle(long l) {
-                paintEmpty();
-                opacity -= 0.1;
-                if (opacity <= 0) {
-                    stop();
-                } else {
-                    var gc = getGraphicsContext2D();
-                    gc.setFill(Color.WHITE.deriveColor(0, 0, 0.5, opacity));
-                    gc.fillRect(0, 0, getWidth(), getHeight());
-                }
-            }
-
-        };animationTimer.start();
-
+        gameBoard.fadeOut(x, y);
     }
 }
@@ -1,7 +1,12 @@
 package uk.ac.soton.comp1206.component;
 
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
+import javafx.stage.Window;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.BlockClickedListener;
@@ -20,11 +25,39 @@ import java.util.Set;
  *
  * The GameBoard is only a visual representation and should not contain game logic or model logic in it, which should
  * take place in the Grid.
+ *
+ * A board can be drawn in one of two ways. With the NODES renderer every block is its own Canvas in the GridPane. With
+ * the CANVAS renderer, the default, the whole board is a single Canvas: changed blocks are marked dirty, and only the
+ * dirty blocks are redrawn on the next pulse. Mouse positions are mapped back to blocks, so listeners see the same
+ * GameBlocks either way. The default can be changed with the system property tetrecs.renderer.
+ *
+ * Either way, all drawing and every effect on the board, such as blocks fading out and the hover highlight, is driven
+ * by one BoardAnimator, which only runs while something on the board is changing.
  */
 public class GameBoard extends GridPane {
 
     private static final Logger logger = LogManager.getLogger(GameBoard.class);
 
+    /**
+     * How a board draws its blocks
+     */
+    public enum Renderer {
+        /**
+         * Every block is its own Canvas
+         */
+        NODES,
+        /**
+         * The whole board is one Canvas, redrawing only the blocks which changed
+         */
+        CANVAS
+    }
+
+    /**
+     * Renderer used when none is given, from the system property tetrecs.renderer
+     */
+    public static final Renderer DEFAULT_RENDERER =
+            "nodes".equalsIgnoreCase(System.getProperty("tetrecs.renderer")) ? Renderer.NODES : Renderer.CANVAS;
+
     /**
      * Number of columns in the board
      */
@@ -55,7 +88,38 @@ public class GameBoard extends GridPane {
      */
     GameBlock[][] blocks;
 
+    /**
+     * How this board draws its blocks
+     */
+    private final Renderer renderer;
+
+    /**
+     * The canvas the whole board is drawn on, with the CANVAS renderer
+     */
+    private Canvas surface;
+
+    /**
+     * Drives all drawing and effects on this board
+     */
+    private final BoardAnimator animator;
+
+    /**
+     * Redraws the whole board when the output scale of its window changes
+     */
+    private final InvalidationListener rescale = observable -> repaintAll();
 
+    /**
+     * Moves the rescale listener over when the board's scene is shown in a different window
+     */
+    private final ChangeListener<Window> windowListener = (observable, oldWindow, newWindow) -> {
+        if (oldWindow != null) {
+            oldWindow.outputScaleXProperty().removeListener(rescale);
+        }
+        if (newWindow != null) {
+            newWindow.outputScaleXProperty().addListener(rescale);
+        }
+        repaintAll();
+    };
 
     /**
      * The listener to call when a specific block is clicked
@@ -75,11 +139,36 @@ public class GameBoard extends GridPane {
      * @param height the visual height
      */
     public GameBoard(Grid grid, double width, double height) {
+        this(grid, width, height, DEFAULT_RENDERER);
+    }
+
+    /**
+     * Create a new GameBoard, based off a given grid, with a visual width and height, drawn with the given renderer.
+     * @param grid linked grid
+     * @param width the visual width
+     * @param height the visual height
+     * @param renderer how to draw the blocks
+     */
+    public GameBoard(Grid grid, double width, double height, Renderer renderer) {
         this.cols = grid.getCols();
         this.rows = grid.getRows();
         this.width = width;
         this.height = height;
         this.grid = grid;
+        this.renderer = renderer;
+        this.animator = new BoardAnimator(cols, rows, this::paintCell);
+
+        //Follow the window the board is shown in, so the blocks can be redrawn for its output scale
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null) {
+                oldScene.windowProperty().removeListener(windowListener);
+                windowListener.changed(null, oldScene.getWindow(), null);
+            }
+            if (newScene != null) {
+                newScene.windowProperty().addListener(windowListener);
+                windowListener.changed(null, null, newScene.getWindow());
+            }
+        });
 
         //Build the GameBoard
         build();
@@ -95,14 +184,7 @@ public class GameBoard extends GridPane {
      * @param height the visual height
      */
     public GameBoard(int cols, int rows, double width, double height) {
-        this.cols = cols;
-        this.rows = rows;
-        this.width = width;
-        this.height = height;
-        this.grid = new Grid(cols,rows);
-
-        //Build the GameBoard
-        build();
+        this(new Grid(cols,rows), width, height, DEFAULT_RENDERER);
     }
 
     /**
@@ -124,7 +206,11 @@ public class GameBoard extends GridPane {
         setMaxWidth(width);
         setMaxHeight(height);
 
-        setGridLinesVisible(true);
+        if (renderer == Renderer.CANVAS) {
+            buildSurface();
+        } else {
+            setGridLinesVisible(true);
+        }
 
         blocks = new GameBlock[cols][rows];
 
@@ -145,6 +231,15 @@ public class GameBoard extends GridPane {
         var blockWidth = width / cols;
         var blockHeight = height / rows;
 
+        if (renderer == Renderer.CANVAS) {
+            //The block only holds the value, and this board draws it
+            GameBlock block = new GameBlock(this, x, y, blockWidth, blockHeight, true);
+            blocks[x][y] = block;
+            block.bind(grid.getGridProperty(x,y));
+            repaint(x, y);
+            return block;
+        }
+
         //Create a new GameBlock UI component
         GameBlock block = new GameBlock(this, x, y, blockWidth, blockHeight);
 
@@ -170,6 +265,111 @@ public class GameBoard extends GridPane {
         return block;
     }
 
+    /**
+     * Create the single canvas the whole board is drawn on, and map the mouse back to blocks
+     */
+    private void buildSurface() {
+        surface = new Canvas(width, height);
+        add(surface, 0, 0);
+
+        surface.setOnMouseMoved(e -> {
+            GameBlock block = blockAt(e.getX(), e.getY());
+            if (block == null) {
+                animator.clearHover();
+            } else {
+                block.hover();
+            }
+        });
+        surface.setOnMouseExited(e -> animator.clearHover());
+        surface.setOnMouseClicked(e -> {
+            GameBlock block = blockAt(e.getX(), e.getY());
+            if (block == null) {
+                return;
+            }
+            if (e.getButton() == MouseButton.PRIMARY) {
+                blockClicked(e, block);
+            } else {
+                rightClicked(e, block);
+            }
+        });
+    }
+
+    /**
+     * Find the block under a point on the board
+     * @param px x coordinate, relative to the board
+     * @param py y coordinate, relative to the board
+     * @return block under the point, or null if there is none
+     */
+    public GameBlock blockAt(double px, double py) {
+        int x = (int) Math.floor(px / (width / cols));
+        int y = (int) Math.floor(py / (height / rows));
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return null;
+        }
+        return blocks[x][y];
+    }
+
+    /**
+     * Get how this board draws its blocks
+     * @return renderer
+     */
+    public Renderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Redraw a block on the next pulse, without its highlight
+     * @param x column
+     * @param y row
+     */
+    void repaint(int x, int y) {
+        animator.repaint(x, y);
+    }
+
+    /**
+     * Move the highlight to a block
+     * @param x column
+     * @param y row
+     */
+    void hover(int x, int y) {
+        animator.hover(x, y);
+    }
+
+    /**
+     * Start the fade out animation on a block
+     * @param x column
+     * @param y row
+     */
+    void fadeOut(int x, int y) {
+        animator.fade(x, y);
+    }
+
+    /**
+     * Redraw every block on the next pulse
+     */
+    private void repaintAll() {
+        animator.repaintAll();
+    }
+
+    /**
+     * Draw a block with its effects. Called by the animator for each block which changed this pulse.
+     * @param x column
+     * @param y row
+     * @param fade opacity of the fade out flash
+     * @param hover opacity of the hover highlight
+     */
+    private void paintCell(int x, int y, double fade, double hover) {
+        GameBlock block = blocks[x][y];
+        if (renderer == Renderer.NODES) {
+            block.paintFrame(fade, hover);
+            return;
+        }
+        double blockWidth = width / cols;
+        double blockHeight = height / rows;
+        GameBlock.paintFrame(surface.getGraphicsContext2D(), x * blockWidth, y * blockHeight, blockWidth, blockHeight,
+                block.getValue(), block.isCenter(), fade, hover, BlockSprites.outputScale(surface));
+    }
+
     /**
      * Set the listener to handle an event when right-clicked
      * @param listener listener to add
@@ -25,12 +25,15 @@ public class PieceBoard extends GameBoard {
     }
 
     /**
-     * Display the current and following game piece
+     * Display the current and following game piece. The board is cleared and redrawn as one batch, so each block
+     * repaints at most once.
      * @param gamePiece store the pieces
      */
     public void display(GamePiece gamePiece){
-        grid.clear();
-        grid.playPiece(gamePiece,1,1);
+        grid.batch(() -> {
+            grid.clear();
+            grid.playPiece(gamePiece,1,1);
+        });
     }
 
     /**
@@ -0,0 +1,159 @@
+package uk.ac.soton.comp1206.engine;
+
+import uk.ac.soton.comp1206.game.Grid;
+
+/**
+ * A snapshot of everything a GameEngine needs to carry on a game from a given point: the blocks on the grid, the two
+ * pieces in hand, the score, lives, level and multiplier, and how far through the piece sequence the game is.
+ *
+ * Snapshots are immutable and can be loaded any number of times.
+ */
+public class EngineState {
+
+    /**
+     * Copy of the grid
+     */
+    private final Grid grid;
+
+    /**
+     * Type and rotation of the current piece, or -1 if there is none
+     */
+    private final int currentType, currentRotation;
+
+    /**
+     * Type and rotation of the following piece, or -1 if there is none
+     */
+    private final int followingType, followingRotation;
+
+    /**
+     * The score, lives, level and multiplier
+     */
+    private final int score, lives, level, multiplier;
+
+    /**
+     * Whether the game had ended
+     */
+    private final boolean gameOver;
+
+    /**
+     * Number of pieces taken from the piece source since the engine was reset
+     */
+    private final int piecesDealt;
+
+    /**
+     * Create a snapshot
+     * @param grid grid to copy
+     * @param currentType type of the current piece, or -1
+     * @param currentRotation rotation of the current piece
+     * @param followingType type of the following piece, or -1
+     * @param followingRotation rotation of the following piece
+     * @param score score
+     * @param lives lives
+     * @param level level
+     * @param multiplier multiplier
+     * @param gameOver whether the game had ended
+     * @param piecesDealt number of pieces taken from the piece source since the engine was reset
+     */
+    public EngineState(Grid grid, int currentType, int currentRotation, int followingType, int followingRotation,
+                       int score, int lives, int level, int multiplier, boolean gameOver, int piecesDealt) {
+        this.grid = new Grid(grid);
+        this.currentType = currentType;
+        this.currentRotation = currentRotation;
+        this.followingType = followingType;
+        this.followingRotation = followingRotation;
+        this.score = score;
+        this.lives = lives;
+        this.level = level;
+        this.multiplier = multiplier;
+        this.gameOver = gameOver;
+        this.piecesDealt = piecesDealt;
+    }
+
+    /**
+     * Get the copy of the grid. It must not be modified.
+     * @return grid
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Get the type of the current piece
+     * @return piece type, or -1 if there is none
+     */
+    public int getCurrentType() {
+        return currentType;
+    }
+
+    /**
+     * Get the rotation of the current piece
+     * @return rotation
+     */
+    public int getCurrentRotation() {
+        return currentRotation;
+    }
+
+    /**
+     * Get the type of the following piece
+     * @return piece type, or -1 if there is none
+     */
+    public int getFollowingType() {
+        return followingType;
+    }
+
+    /**
+     * Get the rotation of the following piece
+     * @return rotation
+     */
+    public int getFollowingRotation() {
+        return followingRotation;
+    }
+
+    /**
+     * Get the score
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Get the remaining lives
+     * @return lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Get the level
+     * @return level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the multiplier
+     * @return multiplier
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Check whether the game had ended
+     * @return whether the game was over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Get the number of pieces taken from the piece source since the engine was reset
+     * @return pieces dealt
+     */
+    public int getPiecesDealt() {
+        return piecesDealt;
+    }
+}
@@ -0,0 +1,191 @@
+package uk.ac.soton.comp1206.engine;
+
+import uk.ac.soton.comp1206.game.ClearedLines;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.LegalMoves;
+import uk.ac.soton.comp1206.game.PieceSource;
+
+/**
+ * The GameEngine holds the rules and state of a TetrECS game: the grid, the piece queue, scoring, levels and lives.
+ *
+ * An engine is plain Java. It never touches the JavaFX application thread, plays no sounds and has no clock of its own,
+ * so it can be driven from tests, bots and batch simulations as fast as they like. Timing is left to the caller, which
+ * reports when the time for a piece has run out through timerExpired().
+ */
+public interface GameEngine {
+
+    /**
+     * Reset the engine and deal the first pieces, ready to play
+     */
+    void start();
+
+    /**
+     * Reset the grid, score, level, multiplier and lives, and restart the piece source, without dealing any pieces
+     */
+    void reset();
+
+    /**
+     * Deal a fresh current and following piece
+     */
+    void deal();
+
+    /**
+     * Move the following piece into play and spawn a new following piece
+     */
+    void nextPiece();
+
+    /**
+     * Check whether the current piece can be played with its centre at the given x and y
+     * @param x column
+     * @param y row
+     * @return whether the piece fits
+     */
+    boolean canPlay(int x, int y);
+
+    /**
+     * Find every place the current piece can be played, in each of its rotations
+     * @param moves result to fill in with the legal moves
+     * @return whether there is any legal move
+     */
+    boolean findLegalMoves(LegalMoves moves);
+
+    /**
+     * Check whether the current piece can be played anywhere, in any rotation
+     * @return whether there is any legal move
+     */
+    boolean hasLegalMove();
+
+    /**
+     * Play the current piece with its centre at the given x and y. If it fits, any full lines are cleared and scored
+     * and the next piece is brought into play.
+     * @param x column
+     * @param y row
+     * @return whether the piece was played
+     */
+    boolean play(int x, int y);
+
+    /**
+     * Check the lines crossed by a piece which has been placed at x and y, then clear and score any that are full
+     * @param gamePiece the piece that was placed
+     * @param x column
+     * @param y row
+     * @return number of lines cleared
+     */
+    int afterPiece(GamePiece gamePiece, int x, int y);
+
+    /**
+     * Check every line in the grid, then clear and score any that are full
+     * @return number of lines cleared
+     */
+    int afterPiece();
+
+    /**
+     * Add the score for clearing the given lines and blocks at the current multiplier, and update the level
+     * @param lines number of lines cleared
+     * @param blocks number of blocks cleared
+     */
+    void score(int lines, int blocks);
+
+    /**
+     * Rotate the current piece
+     * @param rotations number of rotations
+     */
+    void rotate(int rotations);
+
+    /**
+     * Swap the current piece with the following piece
+     */
+    void swap();
+
+    /**
+     * The time for the current piece has run out. The piece is discarded and a life is lost, or the game ends if there
+     * are no lives left.
+     */
+    void timerExpired();
+
+    /**
+     * Take a snapshot of the state of the game
+     * @return snapshot
+     */
+    EngineState save();
+
+    /**
+     * Carry on the game from a snapshot. The piece source is restarted and wound forward to where it was when the
+     * snapshot was taken, so it must deal the same sequence every time it is restarted.
+     * @param state snapshot to load
+     */
+    void load(EngineState state);
+
+    /**
+     * Get the number of pieces taken from the piece source since the engine was reset
+     * @return pieces dealt
+     */
+    int getPiecesDealt();
+
+    /**
+     * Get the time allowed to play a piece at the current level
+     * @return time in milliseconds
+     */
+    int getTimerDelay();
+
+    /**
+     * Get the lines found by the most recent placement
+     * @return cleared lines
+     */
+    ClearedLines getClearedLines();
+
+    /**
+     * Get the source dealing the pieces
+     * @return piece source
+     */
+    PieceSource getPieceSource();
+
+    /**
+     * Get the grid holding the state of the board
+     * @return grid
+     */
+    Grid getGrid();
+
+    /**
+     * Get the piece in play
+     * @return current piece
+     */
+    GamePiece getCurrentPiece();
+
+    /**
+     * Get the piece which will be played next
+     * @return following piece
+     */
+    GamePiece getFollowingPiece();
+
+    /**
+     * Get the current score
+     * @return score
+     */
+    int getScore();
+
+    /**
+     * Get the remaining lives
+     * @return lives
+     */
+    int getLives();
+
+    /**
+     * Get the current level
+     * @return level
+     */
+    int getLevel();
+
+    /**
+     * Get the current multiplier
+     * @return multiplier
+     */
+    int getMultiplier();
+
+    /**
+     * Check whether the game has ended
+     * @return whether the game is over
+     */
+    boolean isGameOver();
+}
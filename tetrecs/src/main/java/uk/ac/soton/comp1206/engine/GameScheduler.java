@@ -0,0 +1,404 @@
+package uk.ac.soton.comp1206.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The GameScheduler runs the piece timers of every game in the process from a single hashed timing wheel.
+ *
+ * The wheel is a ring of buckets, one per tick. A single ticker thread moves round the ring, and every timeout in the
+ * bucket it reaches which is due on this turn of the wheel is handed to an executor to run. Scheduling and cancelling
+ * are constant time and take no locks, and the ticker only wakes once per tick however many games there are, so a
+ * headless host can run tens of thousands of games without a thread each. Deadlines are rounded up to the next tick.
+ *
+ * Expired tasks run on virtual threads when the runtime has them, and otherwise on a small shared pool of daemon
+ * threads. Setting the system property tetrecs.virtualThreads to false always uses the pool.
+ */
+public class GameScheduler {
+
+    private static final Logger logger = LogManager.getLogger(GameScheduler.class);
+
+    /**
+     * Default length of a tick, in milliseconds
+     */
+    public static final long DEFAULT_TICK = 10;
+
+    /**
+     * Default number of buckets in the wheel
+     */
+    public static final int DEFAULT_WHEEL = 512;
+
+    /**
+     * Most new timeouts moved into the wheel per tick, so a flood of scheduling cannot stall the ticker
+     */
+    private static final int TRANSFER_LIMIT = 100_000;
+
+    /**
+     * The scheduler shared by every game in the process
+     */
+    private static volatile GameScheduler shared;
+
+    /**
+     * Length of a tick, in nanoseconds
+     */
+    private final long tickNanos;
+
+    /**
+     * The buckets of the wheel, one per tick
+     */
+    private final Timeout[] wheel;
+
+    /**
+     * Timeouts waiting to be moved into the wheel by the ticker
+     */
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of timeouts which have neither run nor been cancelled
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Runs expired tasks
+     */
+    private final Executor executor;
+
+    /**
+     * Moves round the wheel
+     */
+    private final Thread ticker;
+
+    /**
+     * Time the wheel started, in nanoseconds
+     */
+    private final long start;
+
+    /**
+     * Number of ticks which have passed. Only used by the ticker.
+     */
+    private long tick;
+
+    /**
+     * Whether the scheduler is still running
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Create a scheduler and start its ticker
+     * @param tick length of a tick, in milliseconds
+     * @param wheelSize number of buckets in the wheel, rounded up to a power of two
+     * @param executor runs expired tasks
+     */
+    public GameScheduler(long tick, int wheelSize, Executor executor) {
+        int buckets = 1;
+        while (buckets < wheelSize) {
+            buckets <<= 1;
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tick);
+        this.wheel = new Timeout[buckets];
+        this.executor = executor;
+        this.start = System.nanoTime();
+
+        ticker = new Thread(this::run, "game-scheduler");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Get the scheduler shared by every game in the process, creating it the first time
+     * @return shared scheduler
+     */
+    public static GameScheduler shared() {
+        if (shared == null) {
+            synchronized (GameScheduler.class) {
+                if (shared == null) {
+                    shared = new GameScheduler(DEFAULT_TICK, DEFAULT_WHEEL, createExecutor());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Create the executor for expired tasks, using virtual threads if they are available
+     * @return executor
+     */
+    private static ExecutorService createExecutor() {
+        if (Boolean.parseBoolean(System.getProperty("tetrecs.virtualThreads", "true"))) {
+            try {
+                //Looked up reflectively, as virtual threads are a preview feature on the release this is built for
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                ExecutorService executor = (ExecutorService) method.invoke(null);
+                logger.info("Game loops run on virtual threads");
+                return executor;
+            } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+                logger.info("Virtual threads are not available, game loops run on a thread pool");
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "game-loop-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), factory);
+    }
+
+    /**
+     * Run a task once the given delay has passed
+     * @param task task to run
+     * @param delay delay before running
+     * @param unit unit of the delay
+     * @return handle which can cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("The scheduler has been shut down");
+        }
+        Timeout timeout = new Timeout(this, task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+        pending.incrementAndGet();
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Get the executor expired tasks run on, so that other game work can share its threads
+     * @return executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the number of tasks waiting to run
+     * @return pending tasks
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the ticker. Tasks which have not run yet never will.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    /**
+     * Move round the wheel one tick at a time until shut down
+     */
+    private void run() {
+        while (running) {
+            long deadline = start + (tick + 1) * tickNanos;
+            long wait;
+            while (running && (wait = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+            if (!running) {
+                break;
+            }
+
+            try {
+                transfer();
+                expire((int) (tick & (wheel.length - 1)));
+            } catch (RuntimeException e) {
+                logger.error("Game scheduler tick failed", e);
+            }
+            tick++;
+        }
+    }
+
+    /**
+     * Move newly scheduled timeouts into their buckets
+     */
+    private void transfer() {
+        for (int i = 0; i < TRANSFER_LIMIT; i++) {
+            Timeout timeout = incoming.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.WAITING) {
+                continue;
+            }
+            //The tick the deadline falls in, or this tick if it has already passed
+            long due = Math.max(tick, (timeout.deadline - start + tickNanos - 1) / tickNanos - 1);
+            timeout.rounds = (due - tick) / wheel.length;
+            int bucket = (int) (due & (wheel.length - 1));
+            timeout.next = wheel[bucket];
+            if (timeout.next != null) {
+                timeout.next.prev = timeout;
+            }
+            wheel[bucket] = timeout;
+        }
+    }
+
+    /**
+     * Run every timeout in a bucket which is due on this turn of the wheel, and drop any which were cancelled
+     * @param bucket index of the bucket
+     */
+    private void expire(int bucket) {
+        Timeout timeout = wheel[bucket];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.state != Timeout.WAITING) {
+                remove(bucket, timeout);
+            } else if (timeout.rounds > 0) {
+                timeout.rounds--;
+            } else {
+                remove(bucket, timeout);
+                if (Timeout.STATE.compareAndSet(timeout, Timeout.WAITING, Timeout.EXPIRED)) {
+                    pending.decrementAndGet();
+                    executor.execute(timeout::run);
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Unlink a timeout from its bucket
+     * @param bucket index of the bucket
+     * @param timeout timeout to remove
+     */
+    private void remove(int bucket, Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.next = null;
+        timeout.prev = null;
+    }
+
+    /**
+     * A task waiting in the wheel
+     */
+    public static final class Timeout {
+
+        /**
+         * Waiting to run
+         */
+        private static final int WAITING = 0;
+
+        /**
+         * Handed to the executor to run
+         */
+        private static final int EXPIRED = 1;
+
+        /**
+         * Cancelled before it ran
+         */
+        private static final int CANCELLED = 2;
+
+        /**
+         * Updates the state without an extra object per timeout
+         */
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        /**
+         * The scheduler this timeout belongs to
+         */
+        private final GameScheduler scheduler;
+
+        /**
+         * Task to run
+         */
+        private final Runnable task;
+
+        /**
+         * Time the task is due, in nanoseconds
+         */
+        private final long deadline;
+
+        /**
+         * Whether the task is waiting, expired or cancelled
+         */
+        private volatile int state = WAITING;
+
+        /**
+         * Number of turns of the wheel left before the task is due. Only used by the ticker.
+         */
+        private long rounds;
+
+        /**
+         * Neighbours in the bucket. Only used by the ticker.
+         */
+        private Timeout next, prev;
+
+        /**
+         * Create a timeout
+         * @param scheduler the scheduler this timeout belongs to
+         * @param task task to run
+         * @param deadline time the task is due, in nanoseconds
+         */
+        private Timeout(GameScheduler scheduler, Runnable task, long deadline) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task if it has not run yet. A task which has already started is left to finish.
+         * @return whether the task was cancelled
+         */
+        public boolean cancel() {
+            if (STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                scheduler.pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Check whether the task was cancelled
+         * @return whether it was cancelled
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Check whether the task has been handed over to run
+         * @return whether it has expired
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * Get the time left before the task is due
+         * @param unit unit to return the time in
+         * @return time left, negative once the deadline has passed
+         */
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Run the task, logging anything it throws so that it does not kill the executor thread
+         */
+        private void run() {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Game loop task failed", e);
+            }
+        }
+    }
+}
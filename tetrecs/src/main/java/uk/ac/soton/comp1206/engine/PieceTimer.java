@@ -0,0 +1,170 @@
+package uk.ac.soton.comp1206.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The PieceTimer holds the deadline for the piece in play as an absolute time on a monotonic clock.
+ *
+ * Everything else is worked out from the deadline when asked, so the time remaining is a cheap query which always
+ * agrees with when the piece really runs out, however late the caller is. When a piece runs out the next deadline is
+ * counted on from the old one rather than from the moment the expiry was handled, so lateness never builds up. Pausing
+ * stores the time remaining and resuming sets a new deadline that far ahead.
+ */
+public class PieceTimer {
+
+    /**
+     * Reads the clock, in nanoseconds
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Time the piece runs out, in nanoseconds
+     */
+    private long deadline;
+
+    /**
+     * Time allowed for the piece, in nanoseconds
+     */
+    private long duration;
+
+    /**
+     * Time which was left when the timer was paused, in nanoseconds
+     */
+    private long remaining;
+
+    /**
+     * Whether a piece is being timed
+     */
+    private boolean running;
+
+    /**
+     * Whether the timer is paused
+     */
+    private boolean paused;
+
+    /**
+     * Create a timer using System.nanoTime
+     */
+    public PieceTimer() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Create a timer using the given clock
+     * @param clock reads the clock, in nanoseconds
+     */
+    public PieceTimer(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Start timing a new piece from now
+     * @param millis time allowed for the piece, in milliseconds
+     */
+    public synchronized void start(long millis) {
+        duration = TimeUnit.MILLISECONDS.toNanos(millis);
+        running = true;
+        if (paused) {
+            remaining = duration;
+        } else {
+            deadline = clock.getAsLong() + duration;
+        }
+    }
+
+    /**
+     * Start timing the next piece from the deadline of the last one
+     * @param millis time allowed for the piece, in milliseconds
+     */
+    public synchronized void next(long millis) {
+        duration = TimeUnit.MILLISECONDS.toNanos(millis);
+        running = true;
+        if (paused) {
+            remaining = duration;
+        } else {
+            deadline += duration;
+        }
+    }
+
+    /**
+     * Stop timing
+     */
+    public synchronized void stop() {
+        running = false;
+        paused = false;
+    }
+
+    /**
+     * Pause the timer, keeping the time remaining
+     * @return whether the timer was running and is now paused
+     */
+    public synchronized boolean pause() {
+        if (!running || paused) {
+            return false;
+        }
+        remaining = Math.max(0, deadline - clock.getAsLong());
+        paused = true;
+        return true;
+    }
+
+    /**
+     * Resume the timer with the time which was remaining when it was paused
+     * @return whether the timer was paused and is now running
+     */
+    public synchronized boolean resume() {
+        if (!paused) {
+            return false;
+        }
+        deadline = clock.getAsLong() + remaining;
+        paused = false;
+        return true;
+    }
+
+    /**
+     * Get the time left before the piece runs out
+     * @param unit unit to return the time in
+     * @return time left, or 0 if it has run out or the timer is stopped
+     */
+    public synchronized long remaining(TimeUnit unit) {
+        if (!running) {
+            return 0;
+        }
+        long left = paused ? remaining : deadline - clock.getAsLong();
+        return unit.convert(Math.max(0, left), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the fraction of the time allowed which is left
+     * @return from 1 when the piece starts to 0 when it runs out
+     */
+    public synchronized double progress() {
+        if (!running || duration == 0) {
+            return 0;
+        }
+        return (double) remaining(TimeUnit.NANOSECONDS) / duration;
+    }
+
+    /**
+     * Get the time the piece runs out. Only meaningful while the timer is running and not paused.
+     * @return deadline, in nanoseconds on the timer's clock
+     */
+    public synchronized long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Check whether a piece is being timed
+     * @return whether the timer is running
+     */
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Check whether the timer is paused
+     * @return whether it is paused
+     */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+}
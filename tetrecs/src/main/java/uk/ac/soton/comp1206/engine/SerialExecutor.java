@@ -0,0 +1,88 @@
+package uk.ac.soton.comp1206.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The SerialExecutor runs tasks one at a time, in the order they were submitted, on top of another executor.
+ *
+ * Each game owns one, so everything which changes a game runs as if on a single thread of its own without any locks,
+ * while the threads themselves are shared with every other game. Only one task of a SerialExecutor is ever handed to
+ * the underlying executor at a time, and it keeps running queued tasks until the queue is empty.
+ */
+public class SerialExecutor implements Executor {
+
+    private static final Logger logger = LogManager.getLogger(SerialExecutor.class);
+
+    /**
+     * Tasks waiting to run
+     */
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a drain of the queue has been handed to the underlying executor
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Runs the drains
+     */
+    private final Executor executor;
+
+    /**
+     * Thread running the current drain, or null when idle
+     */
+    private volatile Thread thread;
+
+    /**
+     * Create a serial executor
+     * @param executor runs the tasks
+     */
+    public SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Check whether the calling thread is running a task of this executor
+     * @return whether the caller is on this executor
+     */
+    public boolean inExecutor() {
+        return thread == Thread.currentThread();
+    }
+
+    /**
+     * Run queued tasks until the queue is empty
+     */
+    private void drain() {
+        thread = Thread.currentThread();
+        try {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Game task failed", e);
+                }
+            }
+        } finally {
+            thread = null;
+            scheduled.set(false);
+        }
+        //A task may have been added after the queue was found empty but before the flag was cleared
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+}
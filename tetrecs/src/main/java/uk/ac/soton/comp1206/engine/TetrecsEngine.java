@@ -0,0 +1,329 @@
+package uk.ac.soton.comp1206.engine;
+
+import uk.ac.soton.comp1206.game.ClearedLines;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.LegalMoves;
+import uk.ac.soton.comp1206.game.PieceSource;
+import uk.ac.soton.comp1206.game.UniformPieceSource;
+
+/**
+ * The standard TetrECS rules.
+ *
+ * A placement clears every full row and column it completes. Clearing lines raises the multiplier by one and scores
+ * lines * blocks * 10 * multiplier, while a placement which clears nothing resets the multiplier to 1. Every 1000
+ * points is a level, and each level shortens the time allowed per piece by half a second down to 2.5 seconds. Running
+ * out of time costs a life, and running out of time with no lives left ends the game.
+ */
+public class TetrecsEngine implements GameEngine {
+
+    /**
+     * Lives at the start of a game
+     */
+    public static final int STARTING_LIVES = 3;
+
+    /**
+     * The grid holding the state of the board
+     */
+    private final Grid grid;
+
+    /**
+     * Deals the pieces
+     */
+    private final PieceSource pieces;
+
+    /**
+     * Reused to hold the lines found after each placement
+     */
+    private final ClearedLines clearedLines = new ClearedLines();
+
+    /**
+     * Reused to answer hasLegalMove
+     */
+    private final LegalMoves legalMoves = new LegalMoves();
+
+    /**
+     * The piece in play
+     */
+    private GamePiece currentPiece;
+
+    /**
+     * The piece which will be played next
+     */
+    private GamePiece followingPiece;
+
+    /**
+     * The current score
+     */
+    private int score;
+
+    /**
+     * The remaining lives
+     */
+    private int lives = STARTING_LIVES;
+
+    /**
+     * The current level
+     */
+    private int level;
+
+    /**
+     * The current multiplier
+     */
+    private int multiplier = 1;
+
+    /**
+     * Whether the game has ended
+     */
+    private boolean gameOver;
+
+    /**
+     * Number of pieces taken from the piece source since the engine was reset
+     */
+    private int piecesDealt;
+
+    /**
+     * Create a new engine with a randomly seeded piece sequence
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public TetrecsEngine(int cols, int rows) {
+        this(cols, rows, new UniformPieceSource());
+    }
+
+    /**
+     * Create a new engine with a uniformly random piece sequence generated from the given seed
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed seed for the piece sequence
+     */
+    public TetrecsEngine(int cols, int rows, long seed) {
+        this(cols, rows, new UniformPieceSource(seed));
+    }
+
+    /**
+     * Create a new engine with pieces dealt by the given source
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param pieces deals the pieces
+     */
+    public TetrecsEngine(int cols, int rows, PieceSource pieces) {
+        this.grid = new Grid(cols, rows);
+        this.pieces = pieces;
+    }
+
+    @Override
+    public void start() {
+        reset();
+        deal();
+    }
+
+    @Override
+    public void reset() {
+        grid.clear();
+        pieces.reset();
+        piecesDealt = 0;
+        score = 0;
+        lives = STARTING_LIVES;
+        level = 0;
+        multiplier = 1;
+        gameOver = false;
+        currentPiece = null;
+        followingPiece = null;
+    }
+
+    @Override
+    public void deal() {
+        followingPiece = spawnPiece();
+        nextPiece();
+    }
+
+    @Override
+    public void nextPiece() {
+        currentPiece = followingPiece;
+        followingPiece = spawnPiece();
+    }
+
+    /**
+     * Create the next piece from the piece source
+     * @return new piece
+     */
+    private GamePiece spawnPiece() {
+        piecesDealt++;
+        return GamePiece.createPiece(pieces.next());
+    }
+
+    @Override
+    public boolean canPlay(int x, int y) {
+        return currentPiece != null && grid.canPlayPiece(currentPiece, x, y);
+    }
+
+    @Override
+    public boolean findLegalMoves(LegalMoves moves) {
+        return currentPiece != null && grid.findLegalMoves(currentPiece, moves);
+    }
+
+    @Override
+    public boolean hasLegalMove() {
+        return findLegalMoves(legalMoves);
+    }
+
+    @Override
+    public boolean play(int x, int y) {
+        if (gameOver || !canPlay(x, y)) {
+            return false;
+        }
+        grid.playPiece(currentPiece, x, y);
+        afterPiece(currentPiece, x, y);
+        nextPiece();
+        return true;
+    }
+
+    @Override
+    public int afterPiece(GamePiece gamePiece, int x, int y) {
+        grid.findLines(gamePiece, x, y, clearedLines);
+        return afterLines();
+    }
+
+    @Override
+    public int afterPiece() {
+        grid.findLines(clearedLines);
+        return afterLines();
+    }
+
+    /**
+     * Clear and score the lines which were found after a placement
+     * @return number of lines cleared
+     */
+    private int afterLines() {
+        int lines = clearedLines.getLines();
+        if (lines == 0) {
+            multiplier = 1;
+            return 0;
+        }
+
+        multiplier++;
+        grid.clearLines(clearedLines);
+        score(lines, clearedLines.getBlocks());
+        return lines;
+    }
+
+    @Override
+    public void score(int lines, int blocks) {
+        score += lines * blocks * 10 * multiplier;
+        level = score / 1000;
+    }
+
+    @Override
+    public void rotate(int rotations) {
+        currentPiece.rotate(rotations);
+    }
+
+    @Override
+    public void swap() {
+        GamePiece tmp = currentPiece;
+        currentPiece = followingPiece;
+        followingPiece = tmp;
+    }
+
+    @Override
+    public void timerExpired() {
+        nextPiece();
+        if (lives == 0) {
+            gameOver = true;
+        }
+        lives--;
+        multiplier = 1;
+    }
+
+    @Override
+    public EngineState save() {
+        return new EngineState(grid,
+                currentPiece == null ? -1 : currentPiece.getType(),
+                currentPiece == null ? 0 : currentPiece.getRotation(),
+                followingPiece == null ? -1 : followingPiece.getType(),
+                followingPiece == null ? 0 : followingPiece.getRotation(),
+                score, lives, level, multiplier, gameOver, piecesDealt);
+    }
+
+    @Override
+    public void load(EngineState state) {
+        grid.copyFrom(state.getGrid());
+        currentPiece = state.getCurrentType() < 0 ? null
+                : GamePiece.createPiece(state.getCurrentType(), state.getCurrentRotation());
+        followingPiece = state.getFollowingType() < 0 ? null
+                : GamePiece.createPiece(state.getFollowingType(), state.getFollowingRotation());
+        score = state.getScore();
+        lives = state.getLives();
+        level = state.getLevel();
+        multiplier = state.getMultiplier();
+        gameOver = state.isGameOver();
+
+        //Wind the piece source forward to the same place
+        pieces.reset();
+        for (int i = 0; i < state.getPiecesDealt(); i++) {
+            pieces.next();
+        }
+        piecesDealt = state.getPiecesDealt();
+    }
+
+    @Override
+    public int getPiecesDealt() {
+        return piecesDealt;
+    }
+
+    @Override
+    public int getTimerDelay() {
+        return Math.max(2500, 12000 - 500 * level);
+    }
+
+    @Override
+    public ClearedLines getClearedLines() {
+        return clearedLines;
+    }
+
+    @Override
+    public PieceSource getPieceSource() {
+        return pieces;
+    }
+
+    @Override
+    public Grid getGrid() {
+        return grid;
+    }
+
+    @Override
+    public GamePiece getCurrentPiece() {
+        return currentPiece;
+    }
+
+    @Override
+    public GamePiece getFollowingPiece() {
+        return followingPiece;
+    }
+
+    @Override
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public int getLives() {
+        return lives;
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
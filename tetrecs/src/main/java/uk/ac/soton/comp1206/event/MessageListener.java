@@ -0,0 +1,16 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.network.Message;
+
+/**
+ * The Message Listener is used for listening to parsed messages of the types it was registered for with the
+ * communicator.
+ */
+public interface MessageListener {
+
+    /**
+     * Handle a message received by the Communicator
+     * @param message the parsed message
+     */
+    public void receiveMessage(Message message);
+}
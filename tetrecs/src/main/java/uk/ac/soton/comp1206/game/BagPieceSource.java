@@ -0,0 +1,75 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A PieceSource which deals every piece exactly once, in a shuffled order, before shuffling them all again. This
+ * avoids long droughts and floods of any one piece.
+ */
+public class BagPieceSource extends RandomPieceSource {
+
+    /**
+     * The current bag of pieces
+     */
+    private final int[] bag = new int[GamePiece.PIECES];
+
+    /**
+     * Index of the next piece to deal from the bag
+     */
+    private int position;
+
+    /**
+     * Create a source with a random seed
+     */
+    public BagPieceSource() {
+        this(randomSeed());
+    }
+
+    /**
+     * Create a source with the given seed
+     * @param seed seed for the sequence
+     */
+    public BagPieceSource(long seed) {
+        this(seed, DEFAULT_LOOKAHEAD);
+    }
+
+    /**
+     * Create a source with the given seed and lookahead
+     * @param seed seed for the sequence
+     * @param lookahead how far ahead this source can look
+     */
+    public BagPieceSource(long seed, int lookahead) {
+        super(seed, lookahead);
+        fillBag();
+    }
+
+    @Override
+    protected int generate() {
+        if (position == 0) {
+            //Fisher-Yates shuffle
+            for (int i = bag.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = bag[i];
+                bag[i] = bag[j];
+                bag[j] = tmp;
+            }
+        }
+        int type = bag[position];
+        position = (position + 1) % bag.length;
+        return type;
+    }
+
+    @Override
+    protected void restart() {
+        super.restart();
+        fillBag();
+    }
+
+    /**
+     * Put every piece back into the bag in order
+     */
+    private void fillBag() {
+        for (int i = 0; i < bag.length; i++) {
+            bag[i] = i;
+        }
+        position = 0;
+    }
+}
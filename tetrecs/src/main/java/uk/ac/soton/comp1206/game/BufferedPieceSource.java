@@ -0,0 +1,132 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A PieceSource which keeps the pieces it has looked ahead at in a ring buffer. Subclasses either generate each piece
+ * when it is needed, or push pieces into the buffer as they arrive.
+ */
+public abstract class BufferedPieceSource implements PieceSource {
+
+    /**
+     * Lookahead depth used when none is given
+     */
+    public static final int DEFAULT_LOOKAHEAD = 4;
+
+    /**
+     * How far ahead this source can look
+     */
+    private final int lookahead;
+
+    /**
+     * The buffered pieces. Its length is always a power of two.
+     */
+    private int[] ring;
+
+    /**
+     * Index of the next piece in the ring
+     */
+    private int head;
+
+    /**
+     * Number of pieces in the ring
+     */
+    private int size;
+
+    /**
+     * Create a source with an empty buffer
+     * @param lookahead how far ahead this source can look
+     */
+    protected BufferedPieceSource(int lookahead) {
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("Lookahead must be at least 1: " + lookahead);
+        }
+        this.lookahead = lookahead;
+        int capacity = 1;
+        while (capacity < lookahead) {
+            capacity <<= 1;
+        }
+        this.ring = new int[capacity];
+    }
+
+    /**
+     * Generate the next piece once the buffer has run out
+     * @return piece type
+     * @throws NoSuchElementException if there is no piece available
+     */
+    protected abstract int generate();
+
+    /**
+     * Called by reset() once the buffer has been emptied, to restart the sequence
+     */
+    protected void restart() {
+    }
+
+    @Override
+    public int next() {
+        fill(1);
+        int type = ring[head];
+        head = (head + 1) & (ring.length - 1);
+        size--;
+        return type;
+    }
+
+    @Override
+    public int peek(int ahead) {
+        if (ahead < 0 || ahead >= lookahead) {
+            throw new IndexOutOfBoundsException("Cannot look " + ahead + " pieces ahead");
+        }
+        fill(ahead + 1);
+        return ring[(head + ahead) & (ring.length - 1)];
+    }
+
+    @Override
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    @Override
+    public void reset() {
+        head = 0;
+        size = 0;
+        restart();
+    }
+
+    /**
+     * Get the number of pieces waiting in the buffer
+     * @return buffered pieces
+     */
+    public int available() {
+        return size;
+    }
+
+    /**
+     * Add a piece to the end of the buffer, growing it if it is full
+     * @param type piece type
+     */
+    protected void push(int type) {
+        if (type < 0 || type >= GamePiece.PIECES) {
+            throw new IndexOutOfBoundsException("No such piece: " + type);
+        }
+        if (size == ring.length) {
+            int[] bigger = new int[ring.length * 2];
+            for (int i = 0; i < size; i++) {
+                bigger[i] = ring[(head + i) & (ring.length - 1)];
+            }
+            ring = bigger;
+            head = 0;
+        }
+        ring[(head + size) & (ring.length - 1)] = type;
+        size++;
+    }
+
+    /**
+     * Generate pieces until the buffer holds at least the given number
+     * @param count number of pieces needed
+     */
+    private void fill(int count) {
+        while (size < count) {
+            push(generate());
+        }
+    }
+}
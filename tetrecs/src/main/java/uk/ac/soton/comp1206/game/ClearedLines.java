@@ -0,0 +1,123 @@
+package uk.ac.soton.comp1206.game;
+
+import uk.ac.soton.comp1206.component.GameBlockCoordinate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ClearedLines holds the full lines found in a Grid as two bitmasks: one bit for each full row and one bit for each
+ * full column. A single instance is meant to be reused for every placement, so finding lines does not allocate.
+ *
+ * A block is cleared when its row or its column is full.
+ */
+public class ClearedLines {
+
+    /**
+     * Bit y is set when row y is full
+     */
+    private long rows;
+
+    /**
+     * Bit x is set when column x is full
+     */
+    private long cols;
+
+    /**
+     * Number of columns in the grid the lines were found in
+     */
+    private int gridCols;
+
+    /**
+     * Number of rows in the grid the lines were found in
+     */
+    private int gridRows;
+
+    /**
+     * Reset this result before searching a grid
+     * @param gridCols number of columns in the grid
+     * @param gridRows number of rows in the grid
+     */
+    void reset(int gridCols, int gridRows) {
+        this.gridCols = gridCols;
+        this.gridRows = gridRows;
+        rows = 0;
+        cols = 0;
+    }
+
+    /**
+     * Mark a row as full
+     * @param y row
+     */
+    void addRow(int y) {
+        rows |= 1L << y;
+    }
+
+    /**
+     * Mark a column as full
+     * @param x column
+     */
+    void addCol(int x) {
+        cols |= 1L << x;
+    }
+
+    /**
+     * Get the full rows
+     * @return bitmask with bit y set for each full row
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the full columns
+     * @return bitmask with bit x set for each full column
+     */
+    public long getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of full lines, counting rows and columns
+     * @return number of lines
+     */
+    public int getLines() {
+        return Long.bitCount(rows) + Long.bitCount(cols);
+    }
+
+    /**
+     * Get the number of blocks cleared by these lines. A block where a row and a column cross is only counted once.
+     * @return number of blocks
+     */
+    public int getBlocks() {
+        int fullRows = Long.bitCount(rows);
+        int fullCols = Long.bitCount(cols);
+        return fullRows * gridCols + fullCols * gridRows - fullRows * fullCols;
+    }
+
+    /**
+     * Check whether a block is cleared by these lines
+     * @param x column
+     * @param y row
+     * @return whether the block is cleared
+     */
+    public boolean contains(int x, int y) {
+        return (rows & (1L << y)) != 0 || (cols & (1L << x)) != 0;
+    }
+
+    /**
+     * Build the set of cleared block coordinates. This allocates, so should only be used to hand the result to a UI.
+     * @return coordinates of every cleared block
+     */
+    public Set<GameBlockCoordinate> toCoordinates() {
+        Set<GameBlockCoordinate> coordinates = new HashSet<>();
+        for (int y = 0; y < gridRows; y++) {
+            for (int x = 0; x < gridCols; x++) {
+                if (contains(x, y)) {
+                    coordinates.add(new GameBlockCoordinate(x, y));
+                }
+            }
+        }
+        return coordinates;
+    }
+}
@@ -7,19 +7,34 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.component.GameBlock;
 import uk.ac.soton.comp1206.component.GameBlockCoordinate;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.engine.GameScheduler;
+import uk.ac.soton.comp1206.engine.PieceTimer;
+import uk.ac.soton.comp1206.engine.SerialExecutor;
+import uk.ac.soton.comp1206.engine.TetrecsEngine;
 import uk.ac.soton.comp1206.event.*;
+import uk.ac.soton.comp1206.replay.ReplayRecorder;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
 import java.util.HashSet;
-import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * The Game class handles the main logic, state and properties of the TetrECS game. Methods to manipulate the game state
  * and to handle actions made by the player should take place inside this class.
+ *
+ * The rules themselves live in a GameEngine, which has no JavaFX dependencies. The Game drives the engine from player
+ * actions and its own timer, mirrors the engine state into properties for the UI to bind to, and plays the sounds.
+ *
+ * Everything which changes the engine runs as a command on the game's own serial executor, the game thread, whichever
+ * thread asked for it: clicks, rotations and swaps from the UI, the timer, and pieces arriving from the server. After
+ * each command a snapshot of the state is merged into a pending update, and the update is handed to the JavaFX thread
+ * with a single Platform.runLater. Commands which run before the JavaFX thread gets to it are merged into the same
+ * update, so however busy the game is the JavaFX thread sees at most one batch per pulse. The properties, the grid
+ * returned by getGrid and every listener are only ever touched on the JavaFX thread.
  */
 public class Game {
 
@@ -36,28 +51,95 @@ public class Game {
     protected final int cols;
 
     /**
-     * The grid model linked to the game
+     * The engine holding the rules and state of this game
+     */
+    protected final GameEngine engine;
+
+    /**
+     * The grid model linked to the game, updated on the JavaFX thread from the engine's grid
      */
     protected final Grid grid;
 
     /**
-     * Store the current piece
+     * Runs every command which changes the engine, one at a time
+     */
+    protected final SerialExecutor actor;
+
+    /**
+     * Guards the pending update
+     */
+    private final Object updateLock = new Object();
+
+    /**
+     * Changes waiting to be handed to the JavaFX thread, or null if there are none
+     */
+    private Update pendingUpdate;
+
+    /**
+     * Whether the pieces have changed since the last update was published. Only used on the game thread.
+     */
+    private boolean piecesChanged;
+
+    /**
+     * Blocks cleared since the last update was published. Only used on the game thread.
+     */
+    private final Set<GameBlockCoordinate> clearedBlocks = new HashSet<>();
+
+    /**
+     * Whether the game ended since the last update was published. Only used on the game thread.
+     */
+    private boolean ended;
+
+    /**
+     * Time allowed for the piece of the last loop started since the last update was published, or 0 if no loop was
+     * started. Only used on the game thread.
+     */
+    private int loopStarted;
+
+    /**
+     * The piece in play, as last shown on the JavaFX thread
+     */
+    private GamePiece currentPiece;
+
+    /**
+     * The following piece, as last shown on the JavaFX thread
      */
-    protected GamePiece currentPiece;
+    private GamePiece followingPiece;
+
     /**
-     * Store the following piece
+     * Number of pieces dealt, as last shown on the JavaFX thread
      */
-    protected GamePiece followingPiece;
+    private int piecesDealt;
 
     /**
-     * Executor to execute game loop
+     * Runs the game loop, shared with every other game in the process
      */
-    protected ScheduledExecutorService timer;
+    protected GameScheduler scheduler = GameScheduler.shared();
 
     /**
      * Schedule a new loop
      */
-    protected ScheduledFuture loop;
+    protected GameScheduler.Timeout loop;
+
+    /**
+     * Holds the deadline for the piece in play
+     */
+    protected final PieceTimer pieceTimer = new PieceTimer();
+
+    /**
+     * Whether the game has been stopped, after which no more loops are scheduled
+     */
+    protected volatile boolean stopped = false;
+
+    /**
+     * Whether the game runs its own timer. Replays turn this off and run the timer out themselves.
+     */
+    protected boolean clocked = true;
+
+    /**
+     * Records every action taken in the game
+     */
+    protected volatile ReplayRecorder recorder;
 
     /**
      * Multimedia class is used to play sounds or background music
@@ -104,16 +186,33 @@ public class Game {
     protected GameOverListener gameOverListener;
 
     /**
-     * Create a new game with the specified rows and columns. Creates a corresponding grid model.
+     * Create a new game with the specified rows and columns and a randomly seeded sequence of pieces. Creates a
+     * corresponding grid model.
      * @param cols number of columns
      * @param rows number of rows
      */
     public Game(int cols, int rows) {
+        this(cols, rows, new UniformPieceSource());
+    }
+
+    /**
+     * Create a new game with the specified rows and columns, dealing pieces from the given source. Creates a
+     * corresponding grid model.
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param pieces deals the pieces
+     */
+    public Game(int cols, int rows, PieceSource pieces) {
         this.cols = cols;
         this.rows = rows;
+        if (pieces instanceof RandomPieceSource) {
+            logger.info("Piece seed : " + ((RandomPieceSource) pieces).getSeed());
+        }
 
-        //Create a new grid model to represent the game state
-        this.grid = new Grid(cols,rows);
+        //Create a new engine, and with it the grid model to represent the game state
+        this.engine = new TetrecsEngine(cols, rows, pieces);
+        this.grid = new Grid(cols, rows);
+        this.actor = new SerialExecutor(scheduler.getExecutor());
     }
 
     /**
@@ -121,34 +220,129 @@ public class Game {
      */
     public void start() {
         logger.info("Starting game");
-        initialiseGame();
-        newLoop();
+        submit(() -> {
+            initialiseGame();
+            newLoop();
+        });
+    }
 
+    /**
+     * Run a command on the game thread, then publish the changes it made to the JavaFX thread
+     * @param command command to run
+     */
+    public void submit(Runnable command) {
+        actor.execute(() -> {
+            try {
+                command.run();
+            } finally {
+                publish();
+            }
+        });
+    }
 
+    /**
+     * Run a read only query against the engine on the game thread, so it sees a consistent state
+     * @param query query to run
+     * @param <T> type of the answer
+     * @return the answer, once the query has run
+     */
+    public <T> CompletableFuture<T> ask(Function<GameEngine, T> query) {
+        CompletableFuture<T> answer = new CompletableFuture<>();
+        actor.execute(() -> {
+            try {
+                answer.complete(query.apply(engine));
+            } catch (RuntimeException e) {
+                answer.completeExceptionally(e);
+            }
+        });
+        return answer;
     }
 
     /**
-     * Initialise a new game and set up anything that needs to be done at the start
+     * Check the caller is on the game thread, which is the only thread allowed to touch the engine
+     * @throws IllegalStateException if called from any other thread
      */
-    public void initialiseGame() {
-        logger.info("Initialising game");
-        this.lives.set(3);
-        timer = Executors.newSingleThreadScheduledExecutor();
-        currentPiece = spawnPiece();
-        followingPiece = spawnPiece();
-        nextPiece();
+    protected void checkGameThread() {
+        if (!actor.inExecutor()) {
+            throw new IllegalStateException("Game used from " + Thread.currentThread().getName()
+                    + " instead of the game thread");
+        }
+    }
 
+    /**
+     * Merge the current state of the engine into the pending update, and hand it to the JavaFX thread if it is not
+     * already waiting there. Runs on the game thread.
+     */
+    protected void publish() {
+        boolean schedule = false;
+        synchronized (updateLock) {
+            if (pendingUpdate == null) {
+                pendingUpdate = new Update(cols, rows);
+                schedule = true;
+            }
+            pendingUpdate.capture(engine);
+            pendingUpdate.pieces |= piecesChanged;
+            pendingUpdate.cleared.addAll(clearedBlocks);
+            pendingUpdate.gameOver |= ended;
+            if (loopStarted > 0) {
+                pendingUpdate.loopDelay = loopStarted;
+            }
+        }
+        piecesChanged = false;
+        loopStarted = 0;
+        clearedBlocks.clear();
+        ended = false;
+        if (schedule) {
+            Platform.runLater(this::flush);
+        }
+    }
 
+    /**
+     * Apply the pending update to the grid, the properties and the listeners. Runs on the JavaFX thread.
+     */
+    protected void flush() {
+        Update update;
+        synchronized (updateLock) {
+            update = pendingUpdate;
+            pendingUpdate = null;
+        }
+        if (update == null) {
+            return;
+        }
 
+        grid.batch(() -> grid.copyFrom(update.grid));
+        score.set(update.score);
+        lives.set(update.lives);
+        level.set(update.level);
+        multiplier.set(update.multiplier);
+        currentPiece = update.current;
+        followingPiece = update.following;
+        piecesDealt = update.piecesDealt;
+
+        if (update.pieces && nextPieceListener != null) {
+            nextPieceListener.nextPiece(currentPiece, followingPiece);
+        }
+        if (!update.cleared.isEmpty() && lineClearedListener != null) {
+            lineClearedListener.lineCleared(update.cleared);
+        }
+        if (update.loopDelay > 0 && gameLoopListener != null) {
+            gameLoopListener.gameLoop(update.loopDelay);
+        }
+        if (update.gameOver && gameOverListener != null) {
+            gameOverListener.gameOver(this);
+        }
     }
+
     /**
-     * Spawn a random new piece
-     * @return the next piece to be played
+     * Initialise a new game and set up anything that needs to be done at the start
      */
-    public GamePiece spawnPiece() {
-        logger.info("Spawn Piece");
-        Random random = new Random();
-        return GamePiece.createPiece(random.nextInt(15));
+    public void initialiseGame() {
+        logger.info("Initialising game");
+        stopped = false;
+        engine.start();
+        recorder = new ReplayRecorder(engine);
+        recorder.dealt();
+        nextPieceListen();
     }
 
     /**
@@ -156,19 +350,16 @@ public class Game {
      */
     public void nextPiece(){
         logger.info("Next Piece");
-        currentPiece=followingPiece;
-        followingPiece = spawnPiece();
+        engine.nextPiece();
         nextPieceListen();
 
     }
 
     /**
-     * Run next piece
+     * Tell the next piece listener about the pieces with the next update
      */
     public void nextPieceListen(){
-        if(nextPieceListener!=null){
-            nextPieceListener.nextPiece(currentPiece,followingPiece);
-        }
+        piecesChanged = true;
     }
 
     /**
@@ -206,19 +397,39 @@ public class Game {
     /**
      * Handle what should happen when a particular block is clicked
      * @param gameBlock the block that was clicked
-     * @return boolean
      */
-    public boolean blockClicked(GameBlock gameBlock) {
-        //Get the position of this block
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
+    public void blockClicked(GameBlock gameBlock) {
+        blockClicked(gameBlock.getX(), gameBlock.getY());
+    }
+
+    /**
+     * Handle what should happen when the block at the given x and y is clicked. If the piece is played, the next piece
+     * gets the full time.
+     * @param x column
+     * @param y row
+     */
+    public void blockClicked(int x, int y) {
+        submit(() -> {
+            if(playPiece(x, y)){
+                resetGameLoop();
+            }
+        });
+    }
 
-    
+    /**
+     * Play the current piece at the given x and y. Runs on the game thread.
+     * @param x column
+     * @param y row
+     * @return whether the current piece was played
+     */
+    protected boolean playPiece(int x, int y) {
+        checkGameThread();
         //Check the block is playable
-        if(grid.canPlayPiece(currentPiece, x, y)) {
-            grid.playPiece(currentPiece, x, y);
-            afterPiece();
-            nextPiece();
+        if(engine.play(x, y)) {
+            recorder.place(x, y);
+            recorder.dealt();
+            afterLines();
+            nextPieceListen();
             Multimedia.playSound("place.wav");
             return true;
         } else {
@@ -226,109 +437,89 @@ public class Game {
             return false;
         }
     }
+
     /**
-     * Handles after a piece is placed
-     */
-    public void afterPiece(){
-        int line = 0;
-        
-        //Save the blocks so they can be cleared afterwards
-        HashSet<GameBlockCoordinate> blockCleared = new HashSet<>();
-      
-        //Search the lines to be cleared of vertical line
-        for(int x=0; x < cols; x++) {
-            int valueX = 0;
-            for(int y=0; y < rows; y++) {
-                if(grid.get(x,y) == 0) break;
-                valueX+=1;
-            }
-            if(valueX == rows) {
-                line+=1;
-                for(int y=0; y < rows; y++) {
-                    blockCleared.add(new GameBlockCoordinate(x,y));
-                }
-            }
-        }
+     * Handles after a piece is placed, checking every line in the grid. Runs on the game thread.
+     */
+    protected void afterPiece(){
+        checkGameThread();
+        engine.afterPiece();
+        afterLines();
+    }
 
-        //Search the lines to be cleared of horizontal line
-        for(int y=0; y < rows; y++) {
-            int valueY = 0;
-            for(int x=0; x < cols; x++) {
-                if(grid.get(x,y) == 0) break;
-                valueY+=1;
-            }
-            if(valueY == cols) {
-                line+=1;
-                for(int x=0; x < cols; x++) {
-                    blockCleared.add(new GameBlockCoordinate(x,y));
-                }
-            }
-        }
-        int totalBlocks = blockCleared.size();
-
-      // add the multiplier
-        if(line!=0){
-            // add the multiplier by 1
-            multiplier.set(multiplier.get()+1);
-            // clear the line
-            clearLine(blockCleared);
-            //update the score
-            score(line,totalBlocks);
+    /**
+     * Handles after the given piece is placed at x and y, only checking the lines it touched. Runs on the game thread.
+     * @param gamePiece the piece that was placed
+     * @param x x coordinate of the piece
+     * @param y y coordinate of the piece
+     */
+    protected void afterPiece(GamePiece gamePiece, int x, int y){
+        checkGameThread();
+        engine.afterPiece(gamePiece, x, y);
+        afterLines();
+    }
+
+    /**
+     * Update the UI once the engine has handled the lines after a placement
+     */
+    protected void afterLines(){
+        ClearedLines cleared = engine.getClearedLines();
+        if(cleared.getLines()!=0){
+            scoreChanged();
             //listen to the line cleared
-            if (lineClearedListener != null) {
-                lineClearedListener.lineCleared(blockCleared);
-            }
-        }else{
-            //set the multiplier if there is no line to be cleared
-            multiplier.set(1);
+            clearedBlocks.addAll(cleared.toCoordinates());
         }
     }
 
     /**
-     * Calculate the score of the game based on the lines, blocks and the multiplier
+     * Calculate the score of the game based on the lines, blocks and the multiplier. Runs on the game thread.
      * @param lines store the number of cleared lines
      * @param blocks store the number of cleared blocks
      */
-    public void score(int lines, int blocks){
+    protected void score(int lines, int blocks){
+        checkGameThread();
         logger.info("Add Points");
-        int newScore = lines * blocks * 10 * multiplier.get();
-        this.score.set(score.get()+newScore);
-        logger.info(newScore);
-        level.set(score.get()/1000);
-
-
-
+        engine.score(lines, blocks);
+        scoreChanged();
     }
 
     /**
-     * Loop through the HashSet to clear the line
-     * @param blockCoordinates : HashSet that contains the coordinates of the blocks
+     * Called whenever the score has changed
      */
-    public void clearLine(HashSet<GameBlockCoordinate> blockCoordinates){
-        logger.info("Clearing the lines");
-        for(GameBlockCoordinate block :blockCoordinates){
-            this.grid.set(block.getX(),block.getY(),0);
-        }
+    protected void scoreChanged(){
+        logger.info("Score : " + engine.getScore());
     }
+
     /**
      * Rotate the currentPiece
      */
     public void rotateCurrentPiece(){
-        logger.info("Rotate");
-        currentPiece.rotate();
+        rotateCurrentPiece(1);
+    }
 
+    /**
+     * Rotate the currentPiece the given number of times
+     * @param rotations number of rotations
+     */
+    public void rotateCurrentPiece(int rotations){
+        submit(() -> {
+            logger.info("Rotate");
+            engine.rotate(rotations);
+            recorder.rotate(rotations);
+            nextPieceListen();
+        });
     }
 
     /**
      * Swaps the currentPiece and the followingPiece
      */
     public void swapCurrentPiece(){
-        logger.info("Swap to the next piece");
-        GamePiece tmp = this.currentPiece;
-        this.currentPiece = this.followingPiece;
-        this.followingPiece = tmp;
-
-
+        submit(() -> {
+            logger.info("Swap to the next piece");
+            engine.swap();
+            recorder.swap();
+            nextPieceListen();
+        });
     }
 
 
@@ -337,66 +528,183 @@ public class Game {
      * @return time
      */
     public int getTimerDelay(){
-        return Math.max(2500, 12000 - 500 * level.get());
+        return engine.getTimerDelay();
 
     }
 
     /**
-     * Creates the game loop
+     * Creates the game loop. Runs on the game thread when the deadline of the piece in play is reached.
      */
-    public void gameLoop(){
+    protected void gameLoop(){
+        if(stopped || pieceTimer.isPaused()){
+            return;
+        }
+        if(pieceTimer.remaining(TimeUnit.NANOSECONDS) > 0){
+            //Woken early, so wait for the rest of the time
+            scheduleLoop();
+            return;
+        }
         logger.info("Game Loop");
-        nextPiece();
-        if(lives.get()>0){
-            //if pieces do not placed then lost 1 life
-            logger.info("Lose life");
-            this.lives.set(this.lives.get()-1);
-            logger.info("lives : " + lives.get());
-            multiplier.set(1);
-            multimedia.playSound("lifelose.wav");
-        }else{ //if lives reach -1 stop the game
-            this.lives.set(this.lives.get()-1);
-            logger.info("lives : " + lives.get());
-            if(gameOverListener != null) {
-                logger.info("Game Over");
-                logger.info("lives : "+ lives.get());
-                timer.shutdownNow();
-                Multimedia.stopBackgroundMusic();
-                Platform.runLater(() -> gameOverListener.gameOver(this));
-            }
+        if(timerExpired()){
+            //Count the next piece on from the old deadline so that any lateness does not build up
+            pieceTimer.next(getTimerDelay());
+            scheduleLoop();
+            loopStarted = getTimerDelay();
         }
+    }
+
+    /**
+     * Run the time for the current piece out straight away, giving the next piece the full time
+     */
+    public void expireTimer(){
+        submit(() -> {
+            if(timerExpired()){
+                newLoop();
+            }
+        });
+    }
 
-        if(gameLoopListener != null){
-            gameLoopListener.gameLoop(getTimerDelay());
+    /**
+     * Handle the time for the current piece running out. Runs on the game thread.
+     * @return whether the game carries on
+     */
+    protected boolean timerExpired(){
+        checkGameThread();
+        engine.timerExpired();
+        recorder.timer();
+        recorder.dealt();
+        nextPieceListen();
+        logger.info("lives : " + engine.getLives());
+
+        if(engine.isGameOver()){
+            //if lives reach -1 stop the game
+            logger.info("Game Over");
+            stopTimer();
+            Multimedia.stopBackgroundMusic();
+            ended = true;
+            return false;
         }
-        newLoop();
+
+        //if pieces do not placed then lost 1 life
+        logger.info("Lose life");
+        multimedia.playSound("lifelose.wav");
+        return true;
+    }
+
+    /**
+     * Starts a new game loop, giving the piece in play the full time from now. Runs on the game thread.
+     */
+    protected void newLoop(){
+        checkGameThread();
+        pieceTimer.start(getTimerDelay());
+        scheduleLoop();
+        loopStarted = getTimerDelay();
     }
 
     /**
-     * Starts a new game loop
+     * Schedule the game loop for the deadline of the piece in play
      */
-    public void newLoop(){
-        loop = timer.schedule(this::gameLoop, getTimerDelay(), TimeUnit.MILLISECONDS);
-        if(gameLoopListener != null){
-            gameLoopListener.gameLoop(getTimerDelay());
+    protected void scheduleLoop(){
+        if(clocked && !stopped && !pieceTimer.isPaused()){
+            loop = scheduler.schedule(() -> submit(this::gameLoop), pieceTimer.remaining(TimeUnit.NANOSECONDS),
+                    TimeUnit.NANOSECONDS);
         }
     }
 
     /**
-     * Restarts the game loop
+     * Restarts the game loop. Runs on the game thread.
      */
-    public void resetGameLoop(){
-        loop.cancel(false);
+    protected void resetGameLoop(){
+        if(loop != null){
+            loop.cancel();
+        }
         newLoop();
     }
 
+    /**
+     * Pause the timer, for example when the window loses focus
+     */
+    public void pause(){
+        submit(() -> {
+            if(pieceTimer.pause()){
+                logger.info("Game paused with {}ms left", getTimeRemaining());
+                if(loop != null){
+                    loop.cancel();
+                }
+            }
+        });
+    }
+
+    /**
+     * Resume the timer with the time which was left when it was paused
+     */
+    public void resume(){
+        submit(() -> {
+            if(!stopped && pieceTimer.resume()){
+                logger.info("Game resumed with {}ms left", getTimeRemaining());
+                scheduleLoop();
+            }
+        });
+    }
+
+    /**
+     * Check whether the timer is paused
+     * @return whether it is paused
+     */
+    public boolean isPaused(){
+        return pieceTimer.isPaused();
+    }
+
+    /**
+     * Get the time left before the piece in play runs out
+     * @return time left, in milliseconds
+     */
+    public long getTimeRemaining(){
+        return pieceTimer.remaining(TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the fraction of the time allowed for the piece in play which is left. Cheap enough to call every frame.
+     * @return from 1 when the piece starts to 0 when it runs out
+     */
+    public double getTimerProgress(){
+        return pieceTimer.progress();
+    }
+
+    /**
+     * Set whether the game runs its own timer
+     * @param clocked whether the timer runs
+     */
+    public void setClocked(boolean clocked){
+        this.clocked = clocked;
+    }
+
+    /**
+     * Get the recorder holding every action taken in this game
+     * @return replay recorder
+     */
+    public ReplayRecorder getRecorder(){
+        return recorder;
+    }
+
 
     /**
      * Stop the timer
      */
     public void gameEnded(){
         logger.info("Game Stopped");
-        timer.shutdownNow();
+        stopTimer();
+    }
+
+    /**
+     * Cancel the game loop and stop any more from being scheduled
+     */
+    protected void stopTimer(){
+        stopped = true;
+        pieceTimer.stop();
+        if(loop != null){
+            loop.cancel();
+        }
     }
     /**
      * Get the grid model inside this game representing the game state of the board
@@ -406,6 +714,15 @@ public class Game {
         return grid;
     }
 
+    /**
+     * Get the engine holding the rules and state of this game. It belongs to the game thread, so use ask to read it
+     * from anywhere else.
+     * @return game engine
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
     /**
      * Get the number of columns in this game
      * @return number of columns
@@ -458,14 +775,94 @@ public class Game {
     }
 
     /**
-     * Call the player's current piece
+     * Call the player's current piece, as last shown on the JavaFX thread
      * @return current piece
      */
-    public GamePiece getCurrentPiece(){ return this.currentPiece;}
+    public GamePiece getCurrentPiece(){ return currentPiece;}
 
     /**
-     * Call the player's following piece
+     * Call the player's following piece, as last shown on the JavaFX thread
      * @return following piece
      */
-    public GamePiece getFollowingPiece(){ return this.followingPiece;}
+    public GamePiece getFollowingPiece(){ return followingPiece;}
+
+    /**
+     * Get the number of pieces dealt, as last shown on the JavaFX thread
+     * @return pieces dealt
+     */
+    public int getPiecesDealt(){ return piecesDealt;}
+
+    /**
+     * A batch of changes on its way from the game thread to the JavaFX thread
+     */
+    private static class Update {
+
+        /**
+         * Copy of the engine's grid
+         */
+        private final Grid grid;
+
+        /**
+         * Score, lives, level, multiplier and number of pieces dealt
+         */
+        private int score, lives, level, multiplier, piecesDealt;
+
+        /**
+         * Copies of the piece in play and the following piece
+         */
+        private GamePiece current, following;
+
+        /**
+         * Whether the pieces have changed
+         */
+        private boolean pieces;
+
+        /**
+         * Every block cleared
+         */
+        private final Set<GameBlockCoordinate> cleared = new HashSet<>();
+
+        /**
+         * Whether the game ended
+         */
+        private boolean gameOver;
+
+        /**
+         * Time allowed for the piece of the latest loop started, or 0 if no loop was started
+         */
+        private int loopDelay;
+
+        /**
+         * Create an empty update
+         * @param cols number of columns
+         * @param rows number of rows
+         */
+        Update(int cols, int rows) {
+            this.grid = new Grid(cols, rows);
+        }
+
+        /**
+         * Copy the current state of an engine, replacing whatever was copied before
+         * @param engine engine to copy
+         */
+        void capture(GameEngine engine) {
+            grid.copyFrom(engine.getGrid());
+            score = engine.getScore();
+            lives = engine.getLives();
+            level = engine.getLevel();
+            multiplier = engine.getMultiplier();
+            piecesDealt = engine.getPiecesDealt();
+            current = copy(engine.getCurrentPiece());
+            following = copy(engine.getFollowingPiece());
+        }
+
+        /**
+         * Copy a piece, so that the JavaFX thread never shares one with the game thread
+         * @param piece piece to copy, or null
+         * @return copy, or null
+         */
+        private static GamePiece copy(GamePiece piece) {
+            return piece == null ? null : GamePiece.createPiece(piece.getType(), piece.getRotation());
+        }
+    }
 }
@@ -4,14 +4,23 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.App;
+
+import java.util.Arrays;
 
 /**
  * The Grid is a model which holds the state of a game board. It is made up of a set of Integer values arranged in a 2D
  * arrow, with rows and columns.
  *
- * Each value inside the Grid is an IntegerProperty can be bound to enable modification and display of the contents of
- * the grid.
+ * The state itself is held in primitive form: an occupancy bitmask for every row and a packed array of cell colours.
+ * All rules checks, such as whether a piece can be played, work directly on these.
+ *
+ * Each value inside the Grid can also be viewed as an IntegerProperty, which can be bound to enable display of the
+ * contents of the grid. These properties are only created when something asks for them, and are only updated when
+ * the value of their cell actually changes. Several changes can be made as one batch, in which case the properties are
+ * only updated when the batch is committed, each at most once, and only if the block ends up different.
+ *
+ * The Grid also counts the filled blocks in every row and column as they are written, so checking for full lines
+ * after a placement only needs to look at the rows and columns the piece touched.
  *
  * The Grid contains functions related to modifying the model, for example, placing a piece inside the grid.
  *
@@ -19,11 +28,22 @@ import uk.ac.soton.comp1206.App;
  */
 public class Grid {
 
+    private static final Logger logger = LogManager.getLogger(Grid.class);
+
+    /**
+     * The maximum number of columns, as each row is held in a single occupancy word
+     */
+    public static final int MAX_COLS = Long.SIZE;
+
+    /**
+     * The maximum number of rows, as full rows are reported in a single bitmask
+     */
+    public static final int MAX_ROWS = Long.SIZE;
+
     /**
      * The number of columns in this grid
      */
     private final int cols;
-    private static final Logger logger = LogManager.getLogger(Grid.class);
 
     /**
      * The number of rows in this grid
@@ -31,9 +51,39 @@ public class Grid {
     private final int rows;
 
     /**
-     * The grid is a 2D arrow with rows and columns of SimpleIntegerProperties.
+     * The occupancy of each row. Bit x of rowBits[y] is set when the block at x and y is not empty.
+     */
+    private final long[] rowBits;
+
+    /**
+     * The value of every block, packed row by row
      */
-    private final SimpleIntegerProperty[][] grid;
+    private final byte[] cells;
+
+    /**
+     * The number of filled blocks in each row
+     */
+    private final int[] rowCounts;
+
+    /**
+     * The number of filled blocks in each column
+     */
+    private final int[] colCounts;
+
+    /**
+     * The property view of every block, packed the same way as the cells. Only created when a UI binds to the grid.
+     */
+    private SimpleIntegerProperty[] properties;
+
+    /**
+     * Blocks with a property which changed during the current batch, one bit per column for each row
+     */
+    private long[] pending;
+
+    /**
+     * Number of batches which have begun and not yet been committed
+     */
+    private int batchDepth;
 
     /**
      * Create a new Grid with the specified number of columns and rows and initialise them
@@ -41,18 +91,50 @@ public class Grid {
      * @param rows number of rows
      */
     public Grid(int cols, int rows) {
+        if (cols < 1 || cols > MAX_COLS || rows < 1 || rows > MAX_ROWS) {
+            throw new IllegalArgumentException("Unsupported grid size: " + cols + " x " + rows);
+        }
         this.cols = cols;
         this.rows = rows;
 
-        //Create the grid itself
-        grid = new SimpleIntegerProperty[cols][rows];
+        //Create the grid itself, every block starts empty
+        rowBits = new long[rows];
+        cells = new byte[cols * rows];
+        rowCounts = new int[rows];
+        colCounts = new int[cols];
+    }
 
-        //Add a SimpleIntegerProperty to every block in the grid
-        for(var y = 0; y < rows; y++) {
-            for(var x = 0; x < cols; x++) {
-                grid[x][y] = new SimpleIntegerProperty(0);
+    /**
+     * Create a new Grid holding a copy of the blocks of another grid. The copy has no properties bound to it, so it can
+     * be used to try out moves without affecting the display.
+     * @param other the grid to copy
+     */
+    public Grid(Grid other) {
+        this(other.cols, other.rows);
+        copyFrom(other);
+    }
+
+    /**
+     * Overwrite every block of this grid with the blocks of another grid of the same size
+     * @param other the grid to copy
+     */
+    public void copyFrom(Grid other) {
+        if (other.cols != cols || other.rows != rows) {
+            throw new IllegalArgumentException("Cannot copy a " + other.cols + " x " + other.rows + " grid into a "
+                    + cols + " x " + rows + " grid");
+        }
+        if (properties != null) {
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < cols; x++) {
+                    write(y * cols + x, x, y, other.cells[y * cols + x]);
+                }
             }
+            return;
         }
+        System.arraycopy(other.rowBits, 0, rowBits, 0, rows);
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        System.arraycopy(other.rowCounts, 0, rowCounts, 0, rows);
+        System.arraycopy(other.colCounts, 0, colCounts, 0, cols);
     }
 
     /**
@@ -62,7 +144,61 @@ public class Grid {
      * @return the IntegerProperty at the given x and y in this grid
      */
     public IntegerProperty getGridProperty(int x, int y) {
-        return grid[x][y];
+        checkBounds(x, y);
+        if (properties == null) {
+            properties = new SimpleIntegerProperty[cells.length];
+            pending = new long[rows];
+        }
+
+        //Create the property on first use, starting from the current value of the block
+        int index = y * cols + x;
+        if (properties[index] == null) {
+            properties[index] = new SimpleIntegerProperty(cells[index]);
+        }
+        return properties[index];
+    }
+
+    /**
+     * Begin a batch of changes. Until the matching commit, changes are made to the grid straight away but bound
+     * properties are left alone. Batches can be nested, and only the outermost commit updates the properties.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Commit a batch of changes, updating the property of every block which changed during it
+     */
+    public void commit() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("No batch to commit");
+        }
+        if (--batchDepth > 0 || pending == null) {
+            return;
+        }
+        for (int y = 0; y < rows; y++) {
+            long bits = pending[y];
+            pending[y] = 0;
+            while (bits != 0) {
+                int x = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                //Does nothing if the block ended up back where it started
+                properties[y * cols + x].set(cells[y * cols + x]);
+            }
+        }
+    }
+
+    /**
+     * Make several changes as a single batch
+     * @param changes the changes to make
+     */
+    public void batch(Runnable changes) {
+        beginBatch();
+        try {
+            changes.run();
+        } finally {
+            commit();
+        }
     }
 
     /**
@@ -72,23 +208,61 @@ public class Grid {
      * @param value the new value
      */
     public void set(int x, int y, int value) {
-        grid[x][y].set(value);
+        checkBounds(x, y);
+        write(y * cols + x, x, y, value);
     }
 
     /**
      * Get the value represented at the given x and y index within the grid
      * @param x column
      * @param y row
-     * @return the value
+     * @return the value, or -1 if there is no such index
      */
     public int get(int x, int y) {
-        try {
-            //Get the value held in the property at the x and y index provided
-            return grid[x][y].get();
-        } catch (ArrayIndexOutOfBoundsException e) {
-            //No such index
+        if (!inBounds(x, y)) {
             return -1;
         }
+        return cells[y * cols + x];
+    }
+
+    /**
+     * Check whether the block at the given x and y holds a piece. Blocks outside the grid count as occupied.
+     * @param x column
+     * @param y row
+     * @return whether the block is occupied
+     */
+    public boolean isOccupied(int x, int y) {
+        if (!inBounds(x, y)) {
+            return true;
+        }
+        return (rowBits[y] & (1L << x)) != 0;
+    }
+
+    /**
+     * Get the occupancy bitmask of a row. Bit x is set when the block in column x is not empty.
+     * @param y row
+     * @return occupancy of the row
+     */
+    public long getRowBits(int y) {
+        return rowBits[y];
+    }
+
+    /**
+     * Get the number of filled blocks in a row
+     * @param y row
+     * @return filled blocks
+     */
+    public int getRowCount(int y) {
+        return rowCounts[y];
+    }
+
+    /**
+     * Get the number of filled blocks in a column
+     * @param x column
+     * @return filled blocks
+     */
+    public int getColCount(int x) {
+        return colCounts[x];
     }
 
     /**
@@ -115,23 +289,80 @@ public class Grid {
      * @return whether the piece is playable
      */
     public boolean canPlayPiece(GamePiece gamePiece, int xValue, int yValue) {
+        int type = gamePiece.getType();
+        int rotation = gamePiece.getRotation();
+
+        //The whole bounding box of the piece has to be inside the grid
+        if (xValue + PieceTable.minX(type, rotation) < 0 || xValue + PieceTable.maxX(type, rotation) >= cols
+                || yValue + PieceTable.minY(type, rotation) < 0 || yValue + PieceTable.maxY(type, rotation) >= rows) {
+            return false;
+        }
+
+        //Compare each row of the piece against the occupancy of the row it lands on
+        int shift = xValue - 1;
+        for (int dy = PieceTable.minY(type, rotation); dy <= PieceTable.maxY(type, rotation); dy++) {
+            long row = PieceTable.rowMask(type, rotation, dy);
+            row = shift >= 0 ? row << shift : row >>> -shift;
+            if ((rowBits[yValue + dy] & row) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find every legal move for a piece, in each of its four rotations.
+     *
+     * For each row, the occupancy of the rows a rotation covers is shifted by every block offset and combined, which
+     * leaves a bitset of the centres where any block would land on an occupied block. Everything else inside the
+     * bounds of the grid is legal.
+     * @param type piece type
+     * @param moves result to fill in with the legal moves
+     * @return whether there is any legal move
+     */
+    public boolean findLegalMoves(int type, LegalMoves moves) {
+        moves.reset(type, rows);
+        boolean any = false;
+        for (int rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+            int minX = PieceTable.minX(type, rotation);
+            int maxX = PieceTable.maxX(type, rotation);
+            int minY = PieceTable.minY(type, rotation);
+            int maxY = PieceTable.maxY(type, rotation);
+
+            //Centres which keep the whole piece inside the grid horizontally
+            int left = -minX;
+            int right = cols - 1 - maxX;
+            if (left > right) continue;
+            long inside = (right == Long.SIZE - 1 ? -1L : (1L << (right + 1)) - 1) & (-1L << left);
 
-        int[][] gridBlocks = gamePiece.getBlocks();
-        xValue-=1;
-        yValue-=1;
-        //nested for loop to iterate through the coordinates of the grid block
-        for (int x = 0; x < gridBlocks.length; x++) {
-            for (int y = 0; y < gridBlocks[x].length; y++) {
-                int blockValue = gridBlocks[x][y];
-                if (blockValue != 0) {
-                    int gridValue = get(x + xValue, y + yValue);
-                    if (gridValue != 0) {
-                        return false;
+            for (int y = -minY; y < rows - maxY; y++) {
+                long blocked = 0;
+                for (int dy = minY; dy <= maxY; dy++) {
+                    long row = rowBits[y + dy];
+                    int mask = PieceTable.rowMask(type, rotation, dy);
+                    while (mask != 0) {
+                        int dx = Integer.numberOfTrailingZeros(mask) - 1;
+                        mask &= mask - 1;
+                        blocked |= dx >= 0 ? row >>> dx : row << -dx;
                     }
                 }
+
+                long legal = ~blocked & inside;
+                moves.setRow(rotation, y, legal);
+                any |= legal != 0;
             }
         }
-        return true;
+        return any;
+    }
+
+    /**
+     * Find every legal move for a piece, in each of its four rotations
+     * @param gamePiece the piece to play
+     * @param moves result to fill in with the legal moves
+     * @return whether there is any legal move
+     */
+    public boolean findLegalMoves(GamePiece gamePiece, LegalMoves moves) {
+        return findLegalMoves(gamePiece.getType(), moves);
     }
 
     /**
@@ -142,37 +373,157 @@ public class Grid {
      * @return true if the piece can be placed false if not
      */
     public boolean playPiece(GamePiece gamePiece, int xValue, int yValue) {
-        int[][] gridBlocks = gamePiece.getBlocks();
-
         //if the piece cannot be played then return false
-        if (!canPlayPiece(gamePiece, xValue, yValue))
+        if (!canPlayPiece(gamePiece, xValue, yValue)) {
             return false;
-        else {
-            xValue-=1;
-            yValue-=1;
-            for (int x = 0; x < gridBlocks.length; x++) {
-                for (int y = 0; y < gridBlocks[x].length; y++) {
-                    int blockValue = gridBlocks[x][y];
-
-                    if (blockValue != 0){
-                        set(x + xValue , y + yValue , blockValue);
-                    }
-                }
-            }
         }
 
+        int value = gamePiece.getValue();
+        int[] offsets = gamePiece.getOffsets();
+        for (int i = 0; i < offsets.length; i += 2) {
+            int x = xValue + offsets[i];
+            int y = yValue + offsets[i + 1];
+            write(y * cols + x, x, y, value);
+        }
         return true;
     }
 
     /**
-     * Set the block to zero after line is cleared
+     * Find the full lines that pass through a piece which has just been placed at the given x and y. Only the rows and
+     * columns covered by the piece are checked.
+     * @param gamePiece the piece that was placed
+     * @param xValue x coordinate of the piece
+     * @param yValue y coordinate of the piece
+     * @param cleared result to fill in with the full lines
+     * @return number of full lines
+     */
+    public int findLines(GamePiece gamePiece, int xValue, int yValue, ClearedLines cleared) {
+        int type = gamePiece.getType();
+        int rotation = gamePiece.getRotation();
+        cleared.reset(cols, rows);
+
+        int top = Math.max(0, yValue + PieceTable.minY(type, rotation));
+        int bottom = Math.min(rows - 1, yValue + PieceTable.maxY(type, rotation));
+        for (int y = top; y <= bottom; y++) {
+            if (rowCounts[y] == cols) cleared.addRow(y);
+        }
+
+        int left = Math.max(0, xValue + PieceTable.minX(type, rotation));
+        int right = Math.min(cols - 1, xValue + PieceTable.maxX(type, rotation));
+        for (int x = left; x <= right; x++) {
+            if (colCounts[x] == rows) cleared.addCol(x);
+        }
+        return cleared.getLines();
+    }
+
+    /**
+     * Find every full line in the grid
+     * @param cleared result to fill in with the full lines
+     * @return number of full lines
+     */
+    public int findLines(ClearedLines cleared) {
+        cleared.reset(cols, rows);
+        for (int y = 0; y < rows; y++) {
+            if (rowCounts[y] == cols) cleared.addRow(y);
+        }
+        for (int x = 0; x < cols; x++) {
+            if (colCounts[x] == rows) cleared.addCol(x);
+        }
+        return cleared.getLines();
+    }
+
+    /**
+     * Empty every block on the given lines
+     * @param cleared the lines to clear
+     */
+    public void clearLines(ClearedLines cleared) {
+        long fullRows = cleared.getRows();
+        long fullCols = cleared.getCols();
+        long allCols = cols == Long.SIZE ? -1L : (1L << cols) - 1;
+        for (int y = 0; y < rows; y++) {
+            long bits = rowBits[y] & ((fullRows & (1L << y)) != 0 ? allCols : fullCols);
+            while (bits != 0) {
+                int x = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                write(y * cols + x, x, y, 0);
+            }
+        }
+    }
+
+    /**
+     * Set every block back to zero
      */
     public void clear() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                this.grid[i][j].set(0);
+        if (properties == null) {
+            Arrays.fill(rowBits, 0);
+            Arrays.fill(cells, (byte) 0);
+            Arrays.fill(rowCounts, 0);
+            Arrays.fill(colCounts, 0);
+            return;
+        }
+
+        //Only visit the occupied blocks so that untouched properties do not fire
+        for (int y = 0; y < rows; y++) {
+            long bits = rowBits[y];
+            while (bits != 0) {
+                int x = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                write(y * cols + x, x, y, 0);
             }
         }
     }
 
+    /**
+     * Write a value into the primitive state and, if anything is bound to it, the property view of the block
+     * @param index packed index of the block
+     * @param x column
+     * @param y row
+     * @param value the new value
+     */
+    private void write(int index, int x, int y, int value) {
+        if (cells[index] == value) {
+            return;
+        }
+        boolean wasEmpty = cells[index] == 0;
+        cells[index] = (byte) value;
+        if (value == 0) {
+            rowBits[y] &= ~(1L << x);
+            rowCounts[y]--;
+            colCounts[x]--;
+        } else if (wasEmpty) {
+            rowBits[y] |= 1L << x;
+            rowCounts[y]++;
+            colCounts[x]++;
+        }
+
+        if (properties != null && properties[index] != null) {
+            if (batchDepth > 0) {
+                pending[y] |= 1L << x;
+            } else {
+                properties[index].set(value);
+            }
+        }
+    }
+
+    /**
+     * Check whether the given x and y is inside this grid
+     * @param x column
+     * @param y row
+     * @return whether the index exists
+     */
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+
+    /**
+     * Throw if the given x and y is outside this grid
+     * @param x column
+     * @param y row
+     */
+    private void checkBounds(int x, int y) {
+        if (!inBounds(x, y)) {
+            throw new IndexOutOfBoundsException("No such block: " + x + ", " + y);
+        }
+    }
+
 }
@@ -0,0 +1,138 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Arrays;
+
+/**
+ * LegalMoves holds every place a piece can be played in a Grid, for each of its four rotations.
+ *
+ * Each rotation has one bitset per row: bit x of getRow(rotation, y) is set when the piece, turned to that rotation,
+ * can be played with its centre at x and y. Rotations are the absolute rotations of the PieceTable, not relative to
+ * the rotation the piece is currently in. A single instance is meant to be reused, so generating moves does not
+ * allocate once it has grown to the size of the grid.
+ */
+public class LegalMoves {
+
+    /**
+     * The type of piece these moves are for
+     */
+    private int type;
+
+    /**
+     * Number of rows in the grid the moves were found in
+     */
+    private int rows;
+
+    /**
+     * Bitset of legal centres for each rotation and row
+     */
+    private long[][] placements = new long[PieceTable.ROTATIONS][0];
+
+    /**
+     * Reset this result before generating moves for a grid
+     * @param type piece type
+     * @param rows number of rows in the grid
+     */
+    void reset(int type, int rows) {
+        this.type = type;
+        this.rows = rows;
+        for (int rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+            if (placements[rotation].length < rows) {
+                placements[rotation] = new long[rows];
+            } else {
+                Arrays.fill(placements[rotation], 0, rows, 0);
+            }
+        }
+    }
+
+    /**
+     * Set the legal centres of one row
+     * @param rotation rotation
+     * @param y row
+     * @param bits bitset of legal centres
+     */
+    void setRow(int rotation, int y, long bits) {
+        placements[rotation][y] = bits;
+    }
+
+    /**
+     * Get the type of piece these moves are for
+     * @return piece type
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Get the legal centres of one row
+     * @param rotation rotation
+     * @param y row
+     * @return bitset with bit x set when the centre can go at x
+     */
+    public long getRow(int rotation, int y) {
+        return placements[rotation][y];
+    }
+
+    /**
+     * Check whether the piece can be played with the given rotation and centre
+     * @param rotation rotation
+     * @param x column
+     * @param y row
+     * @return whether the move is legal
+     */
+    public boolean isLegal(int rotation, int x, int y) {
+        return x >= 0 && x < Long.SIZE && y >= 0 && y < rows && (placements[rotation][y] & (1L << x)) != 0;
+    }
+
+    /**
+     * Check whether the piece can be played anywhere in the given rotation
+     * @param rotation rotation
+     * @return whether there is a legal move
+     */
+    public boolean any(int rotation) {
+        long[] bits = placements[rotation];
+        for (int y = 0; y < rows; y++) {
+            if (bits[y] != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the piece can be played anywhere in any rotation
+     * @return whether there is a legal move
+     */
+    public boolean any() {
+        for (int rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+            if (any(rotation)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Count the legal moves in one rotation
+     * @param rotation rotation
+     * @return number of legal centres
+     */
+    public int count(int rotation) {
+        long[] bits = placements[rotation];
+        int count = 0;
+        for (int y = 0; y < rows; y++) {
+            count += Long.bitCount(bits[y]);
+        }
+        return count;
+    }
+
+    /**
+     * Count the legal moves in every rotation. Rotations which give the same shape, even shifted around the centre,
+     * are only counted once, so each way of covering the grid is counted once.
+     * @return number of distinct legal moves
+     */
+    public int count() {
+        int count = 0;
+        for (int rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+            if (PieceTable.isDistinct(type, rotation)) {
+                count += count(rotation);
+            }
+        }
+        return count;
+    }
+}
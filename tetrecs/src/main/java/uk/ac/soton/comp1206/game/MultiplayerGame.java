@@ -1,14 +1,11 @@
 package uk.ac.soton.comp1206.game;
 
-import javafx.application.Platform;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.network.Communicator;
-import uk.ac.soton.comp1206.ui.GameWindow;
-
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.concurrent.Executors;
+import uk.ac.soton.comp1206.network.Message;
+import uk.ac.soton.comp1206.network.MessageType;
+import uk.ac.soton.comp1206.replay.ReplayRecorder;
 
 /**
  * MultiplayerGame extends the Game class
@@ -26,10 +23,15 @@ public class MultiplayerGame extends Game{
      * Game is not initialised
      */
     protected boolean ready = false;
+    /**
+     * Number of pieces requested from the server when the game starts
+     */
+    protected static final int INITIAL_PIECES = 10;
+
     /**
      * Store the game pieces generated from the server
      */
-    Queue<GamePiece> queue = new LinkedList<>();
+    protected final ServerPieceSource pieces;
 
     /**
      * Create a new game with the specified rows and columns. Creates a corresponding grid model.
@@ -39,8 +41,9 @@ public class MultiplayerGame extends Game{
      * @param communicator receive or send messages from the server
      */
     public MultiplayerGame(int cols, int rows, Communicator communicator) {
-        super(cols, rows);
+        super(cols, rows, new ServerPieceSource(INITIAL_PIECES, () -> communicator.send("PIECE")));
         this.communicator = communicator;
+        this.pieces = (ServerPieceSource) engine.getPieceSource();
 
     }
 
@@ -49,53 +52,40 @@ public class MultiplayerGame extends Game{
      */
     public void initialiseGame(){
         logger.info("Initialise Multiplayer Game");
-        timer = Executors.newSingleThreadScheduledExecutor();
-        communicator.addListener((message)->{
-        Platform.runLater(()->handleMessage(message.trim()));});
-        this.lives.set(3);
+        stopped = false;
+        communicator.addListener(message -> submit(() -> handleMessage(message)), MessageType.PIECE);
+        //the pieces are dealt once the server has sent enough of them
+        engine.reset();
+        recorder = new ReplayRecorder(engine);
         //send the initial pieces for the game to start
-        for (int i = 0; i < 10; i++)
-            this.communicator.send("PIECE");
+        pieces.request(INITIAL_PIECES);
 
     }
     /**
-     * Handles the messages from the communicator
+     * Handles the messages from the communicator. Runs on the game thread.
      * @param message information from the server
      */
-    protected void handleMessage(String message) {
-        if(message.contains("PIECE ")){
-            var msg = message.replace("PIECE ","");
-            logger.info(msg);
-            GamePiece gamePiece = GamePiece.createPiece(Integer.parseInt(msg));
-            queue.add(gamePiece);
+    protected void handleMessage(Message message) {
+        if(message.getType() == MessageType.PIECE){
+            logger.info(message.getBody());
+            pieces.offer(message.getInt());
             //initialise the pieces
-            if (!ready && queue.size() > 2) {
-                communicator.send("PIECE");
-                followingPiece = queue.poll();
-                nextPiece();
+            if (!ready && pieces.available() > 2) {
                 ready = true;
+                engine.deal();
+                recorder.dealt();
+                nextPieceListen();
             }
         }
 
     }
-    /**
-     * Assign the given piece to current and remove the piece from the queue
-     */
-    @Override
-    public void nextPiece() {
-        currentPiece = followingPiece;
-        followingPiece = queue.remove();
-        nextPieceListener.nextPiece(currentPiece, followingPiece);
-        communicator.send("PIECE");
-    }
-
     /**
      * Send the current score to the server
      */
     @Override
-    public void score(int lines, int blocks) {
-        super.score(lines, blocks);
-        communicator.send("SCORE "+getScoreProperty().get());
+    protected void scoreChanged() {
+        super.scoreChanged();
+        communicator.send("SCORE "+engine.getScore());
     }
 
 }
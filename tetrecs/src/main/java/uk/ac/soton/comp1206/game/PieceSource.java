@@ -0,0 +1,34 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A PieceSource decides the sequence of pieces dealt in a game. Each piece is given as its type, from 0 to
+ * GamePiece.PIECES - 1.
+ *
+ * Sources can look ahead at the pieces still to come without taking them, up to their lookahead depth.
+ */
+public interface PieceSource {
+
+    /**
+     * Take the next piece
+     * @return piece type
+     */
+    int next();
+
+    /**
+     * Look at a piece still to come without taking it
+     * @param ahead how far ahead to look, where 0 is the piece next() would return
+     * @return piece type
+     */
+    int peek(int ahead);
+
+    /**
+     * Get how far ahead this source can look
+     * @return lookahead depth
+     */
+    int getLookahead();
+
+    /**
+     * Start the sequence again from the beginning, discarding any pieces which have been looked at
+     */
+    void reset();
+}
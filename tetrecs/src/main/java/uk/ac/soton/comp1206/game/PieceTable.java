@@ -0,0 +1,307 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * The PieceTable holds every piece in every rotation, built once when the class is loaded.
+ *
+ * Each entry is identified by a piece type (0 to 14) and a rotation (0 to 3). For each entry the table holds:
+ * - the 3x3 block makeup, in the same [x][y] layout as GamePiece.getBlocks()
+ * - a 9 bit mask, where bit (y * 3 + x) is set for every block of the 3x3 makeup
+ * - the list of block offsets relative to the centre of the piece
+ * - the bounding box of those offsets
+ *
+ * Nothing in the table should ever be modified.
+ */
+public final class PieceTable {
+
+    /**
+     * The number of distinct rotations of a piece
+     */
+    public static final int ROTATIONS = 4;
+
+    /**
+     * The name of each piece
+     */
+    private static final String[] NAMES = {
+            "Line", "C", "Plus", "Dot", "Square", "L", "J", "S", "Z", "T", "X", "Corner", "Inverse Corner", "Diagonal",
+            "Double"
+    };
+
+    /**
+     * The shape of each piece in its starting rotation
+     */
+    private static final int[][][] SHAPES = {
+            {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}},
+            {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}},
+            {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}},
+            {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}},
+            {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}},
+            {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}},
+            {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}},
+            {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}},
+            {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}},
+            {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}},
+            {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}},
+            {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}},
+            {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}},
+            {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}},
+            {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}}
+    };
+
+    /**
+     * The block makeup of each entry
+     */
+    private static final int[][][] BLOCKS = new int[SHAPES.length * ROTATIONS][][];
+
+    /**
+     * The 9 bit mask of each entry
+     */
+    private static final int[] MASKS = new int[SHAPES.length * ROTATIONS];
+
+    /**
+     * The block offsets of each entry, held as x and y pairs relative to the centre
+     */
+    private static final int[][] OFFSETS = new int[SHAPES.length * ROTATIONS][];
+
+    /**
+     * The bounding box of each entry, held as the minimum x, maximum x, minimum y and maximum y offset
+     */
+    private static final int[][] BOUNDS = new int[SHAPES.length * ROTATIONS][];
+
+    /**
+     * Whether each entry has a different shape to every earlier rotation of the same piece, once both are moved to the
+     * top left of the 3x3
+     */
+    private static final boolean[] DISTINCT = new boolean[SHAPES.length * ROTATIONS];
+
+    static {
+        for (int type = 0; type < SHAPES.length; type++) {
+            int value = type + 1;
+            int[][] blocks = new int[3][3];
+            for (int x = 0; x < 3; x++) {
+                for (int y = 0; y < 3; y++) {
+                    blocks[x][y] = SHAPES[type][x][y] == 0 ? 0 : value;
+                }
+            }
+
+            for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+                build(type * ROTATIONS + rotation, blocks);
+                blocks = rotate(blocks);
+            }
+
+            //Symmetrical pieces repeat themselves, possibly shifted within the 3x3, which searches over every
+            //rotation can skip as they cover exactly the same blocks from another centre
+            for (int rotation = 0; rotation < ROTATIONS; rotation++) {
+                DISTINCT[id(type, rotation)] = true;
+                for (int earlier = 0; earlier < rotation; earlier++) {
+                    if (shape(id(type, earlier)) == shape(id(type, rotation))) {
+                        DISTINCT[id(type, rotation)] = false;
+                    }
+                }
+            }
+        }
+    }
+
+    private PieceTable() {
+    }
+
+    /**
+     * Fill in one entry of the table from its block makeup
+     * @param id entry to fill in
+     * @param blocks block makeup of the entry
+     */
+    private static void build(int id, int[][] blocks) {
+        int mask = 0;
+        int count = 0;
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                if (blocks[x][y] != 0) {
+                    mask |= 1 << (y * 3 + x);
+                    count++;
+                }
+            }
+        }
+
+        int[] offsets = new int[count * 2];
+        int[] bounds = {1, -1, 1, -1};
+        int i = 0;
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                if (blocks[x][y] == 0) continue;
+                offsets[i++] = x - 1;
+                offsets[i++] = y - 1;
+                bounds[0] = Math.min(bounds[0], x - 1);
+                bounds[1] = Math.max(bounds[1], x - 1);
+                bounds[2] = Math.min(bounds[2], y - 1);
+                bounds[3] = Math.max(bounds[3], y - 1);
+            }
+        }
+
+        BLOCKS[id] = blocks;
+        MASKS[id] = mask;
+        OFFSETS[id] = offsets;
+        BOUNDS[id] = bounds;
+    }
+
+    /**
+     * Get the mask of an entry moved to the top left corner of the 3x3, so entries which only differ by where the
+     * blocks sit around the centre have the same shape
+     * @param id entry
+     * @return mask shifted to its bounding box
+     */
+    private static int shape(int id) {
+        return MASKS[id] >>> ((BOUNDS[id][2] + 1) * 3 + BOUNDS[id][0] + 1);
+    }
+
+    /**
+     * Rotate a 3x3 block makeup exactly once
+     * @param blocks block makeup to rotate
+     * @return a new rotated block makeup
+     */
+    private static int[][] rotate(int[][] blocks) {
+        int[][] rotated = new int[3][3];
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                rotated[2 - y][x] = blocks[x][y];
+            }
+        }
+        return rotated;
+    }
+
+    /**
+     * Get the number of pieces in the table
+     * @return number of pieces
+     */
+    public static int pieces() {
+        return SHAPES.length;
+    }
+
+    /**
+     * Get the table entry for a piece type and rotation
+     * @param type piece type
+     * @param rotation rotation, from 0 to 3
+     * @return entry id
+     */
+    public static int id(int type, int rotation) {
+        return type * ROTATIONS + rotation;
+    }
+
+    /**
+     * Get the name of a piece
+     * @param type piece type
+     * @return name
+     */
+    public static String name(int type) {
+        return NAMES[type];
+    }
+
+    /**
+     * Get the value of a piece, used as its colour in the grid
+     * @param type piece type
+     * @return value
+     */
+    public static int value(int type) {
+        return type + 1;
+    }
+
+    /**
+     * Get the number of blocks that make up a piece
+     * @param type piece type
+     * @return number of blocks
+     */
+    public static int size(int type) {
+        return OFFSETS[type * ROTATIONS].length / 2;
+    }
+
+    /**
+     * Get the 3x3 block makeup of an entry. The returned array is shared and must not be modified.
+     * @param type piece type
+     * @param rotation rotation
+     * @return block makeup
+     */
+    public static int[][] blocks(int type, int rotation) {
+        return BLOCKS[id(type, rotation)];
+    }
+
+    /**
+     * Check whether a rotation has a different shape to every lower rotation of the same piece. Rotations which are
+     * the same shape shifted around the centre, such as the turns of the Square, are not distinct.
+     * @param type piece type
+     * @param rotation rotation
+     * @return whether the rotation is distinct
+     */
+    public static boolean isDistinct(int type, int rotation) {
+        return DISTINCT[id(type, rotation)];
+    }
+
+    /**
+     * Get the 9 bit mask of an entry, with bit (y * 3 + x) set for every block
+     * @param type piece type
+     * @param rotation rotation
+     * @return mask
+     */
+    public static int mask(int type, int rotation) {
+        return MASKS[id(type, rotation)];
+    }
+
+    /**
+     * Get one row of the mask of an entry, with bit x set for every block in that row
+     * @param type piece type
+     * @param rotation rotation
+     * @param dy row offset from the centre, from -1 to 1
+     * @return 3 bit row mask
+     */
+    public static int rowMask(int type, int rotation, int dy) {
+        return (MASKS[id(type, rotation)] >>> ((dy + 1) * 3)) & 0b111;
+    }
+
+    /**
+     * Get the block offsets of an entry as x and y pairs relative to the centre. The returned array is shared and must
+     * not be modified.
+     * @param type piece type
+     * @param rotation rotation
+     * @return offsets
+     */
+    public static int[] offsets(int type, int rotation) {
+        return OFFSETS[id(type, rotation)];
+    }
+
+    /**
+     * Get the smallest x offset of an entry
+     * @param type piece type
+     * @param rotation rotation
+     * @return minimum x offset
+     */
+    public static int minX(int type, int rotation) {
+        return BOUNDS[id(type, rotation)][0];
+    }
+
+    /**
+     * Get the largest x offset of an entry
+     * @param type piece type
+     * @param rotation rotation
+     * @return maximum x offset
+     */
+    public static int maxX(int type, int rotation) {
+        return BOUNDS[id(type, rotation)][1];
+    }
+
+    /**
+     * Get the smallest y offset of an entry
+     * @param type piece type
+     * @param rotation rotation
+     * @return minimum y offset
+     */
+    public static int minY(int type, int rotation) {
+        return BOUNDS[id(type, rotation)][2];
+    }
+
+    /**
+     * Get the largest y offset of an entry
+     * @param type piece type
+     * @param rotation rotation
+     * @return maximum y offset
+     */
+    public static int maxY(int type, int rotation) {
+        return BOUNDS[id(type, rotation)][3];
+    }
+}
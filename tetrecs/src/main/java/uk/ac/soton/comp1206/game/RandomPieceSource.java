@@ -0,0 +1,53 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * A PieceSource driven by a seeded random number generator. The same seed always deals the same sequence of pieces,
+ * and reset() starts that sequence again.
+ */
+public abstract class RandomPieceSource extends BufferedPieceSource {
+
+    /**
+     * The seed the sequence is generated from
+     */
+    private final long seed;
+
+    /**
+     * Random number generator for the sequence
+     */
+    protected SplittableRandom random;
+
+    /**
+     * Create a source with the given seed
+     * @param seed seed for the sequence
+     * @param lookahead how far ahead this source can look
+     */
+    protected RandomPieceSource(long seed, int lookahead) {
+        super(lookahead);
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Pick a seed for a new unseeded source
+     * @return seed
+     */
+    protected static long randomSeed() {
+        return new Random().nextLong();
+    }
+
+    /**
+     * Get the seed the sequence is generated from
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    protected void restart() {
+        random = new SplittableRandom(seed);
+    }
+}
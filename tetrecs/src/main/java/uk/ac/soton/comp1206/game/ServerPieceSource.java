@@ -0,0 +1,55 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A PieceSource fed with pieces sent by the server in a multiplayer game. Every time a piece is taken, another is
+ * requested to replace it.
+ */
+public class ServerPieceSource extends BufferedPieceSource {
+
+    /**
+     * Asks the server for another piece
+     */
+    private final Runnable request;
+
+    /**
+     * Create a source fed by the server
+     * @param lookahead how far ahead this source can look, once enough pieces have arrived
+     * @param request asks the server for another piece
+     */
+    public ServerPieceSource(int lookahead, Runnable request) {
+        super(lookahead);
+        this.request = request;
+    }
+
+    /**
+     * Add a piece which has arrived from the server
+     * @param type piece type
+     */
+    public void offer(int type) {
+        push(type);
+    }
+
+    /**
+     * Ask the server for the given number of pieces
+     * @param count number of pieces
+     */
+    public void request(int count) {
+        for (int i = 0; i < count; i++) {
+            request.run();
+        }
+    }
+
+    @Override
+    public int next() {
+        int type = super.next();
+        request.run();
+        return type;
+    }
+
+    @Override
+    protected int generate() {
+        throw new NoSuchElementException("No piece has arrived from the server yet");
+    }
+}
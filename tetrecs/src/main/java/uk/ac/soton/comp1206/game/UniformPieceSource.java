@@ -0,0 +1,37 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A PieceSource where every piece is equally likely, independently of the pieces before it. This is how the original
+ * game dealt its pieces.
+ */
+public class UniformPieceSource extends RandomPieceSource {
+
+    /**
+     * Create a source with a random seed
+     */
+    public UniformPieceSource() {
+        this(randomSeed());
+    }
+
+    /**
+     * Create a source with the given seed
+     * @param seed seed for the sequence
+     */
+    public UniformPieceSource(long seed) {
+        this(seed, DEFAULT_LOOKAHEAD);
+    }
+
+    /**
+     * Create a source with the given seed and lookahead
+     * @param seed seed for the sequence
+     * @param lookahead how far ahead this source can look
+     */
+    public UniformPieceSource(long seed, int lookahead) {
+        super(seed, lookahead);
+    }
+
+    @Override
+    protected int generate() {
+        return random.nextInt(GamePiece.PIECES);
+    }
+}
@@ -1,16 +1,35 @@
 package uk.ac.soton.comp1206.network;
 
-import com.neovisionaries.ws.client.*;
-import javafx.scene.control.Alert;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.CommunicationsListener;
+import uk.ac.soton.comp1206.event.MessageListener;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Uses web sockets to talk to a web socket server and relays communication to attached listeners
+ * Talks to the server over a Transport and relays communication to attached listeners. The transport is normally a
+ * web socket, but can be the in process LoopbackServer to play without a connection.
+ *
+ * Outgoing messages are put on a bounded queue and written by a single writer thread, so sending never blocks the
+ * caller. A message which only matters as the latest of its kind, like a SCORE update or a LIST request, replaces one
+ * of the same command still waiting in the queue rather than queuing behind it. Everything waiting is written in one go
+ * each time the writer wakes, so a burst of PIECE requests goes out together. A message which fails to send is logged
+ * and counted, and the writer carries on with the next. The queue depth, how long messages wait and how many were
+ * coalesced, dropped or failed can be read for monitoring.
+ *
+ * Each incoming message is parsed once into a Message, and handed only to the listeners registered for its type by
+ * looking the type up in a table, rather than every listener being given every message to pick apart.
  *
  * YOU DO NOT NEED TO WORRY ABOUT THIS CLASS! Leave it be :-)
  */
@@ -21,102 +40,351 @@ public class Communicator {
     /**
      * Attached communication listeners listening to messages on this Communicator. Each will be sent any messages.
      */
-    private final List<CommunicationsListener> handlers = new ArrayList<>();
+    private final List<CommunicationsListener> handlers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Listeners for parsed messages, by the type they were registered for
+     */
+    private final Map<MessageType, List<MessageListener>> messageHandlers = new EnumMap<>(MessageType.class);
+
+    /**
+     * Carries the messages to and from the server
+     */
+    private final Transport transport;
+
+    /**
+     * Writes queued messages, or null when not connected
+     */
+    private Thread writer;
+
+    /**
+     * Most messages which can wait to be written. Further messages are dropped.
+     */
+    public static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Commands where a newer message replaces one still waiting to be written
+     */
+    private static final Set<String> COALESCED = Set.of("SCORE", "SCORES", "HISCORES", "LIST");
+
+    /**
+     * A message waiting to be written
+     */
+    private static class Outbound {
+
+        /**
+         * The message, replaced if a newer one coalesces into it
+         */
+        private String message;
 
-    private WebSocket ws = null;
+        /**
+         * Time the message was first queued, in nanoseconds
+         */
+        private final long queued;
+
+        /**
+         * Create a waiting message
+         * @param message the message
+         * @param queued time it was queued
+         */
+        private Outbound(String message, long queued) {
+            this.message = message;
+            this.queued = queued;
+        }
+    }
+
+    /**
+     * Messages waiting to be written, oldest first. Also the lock for the queue.
+     */
+    private final ArrayDeque<Outbound> outbound = new ArrayDeque<>();
+
+    /**
+     * Waiting messages which can be coalesced, by command
+     */
+    private final Map<String, Outbound> coalescing = new HashMap<>();
 
     /**
-     * Create a new communicator to the given web socket server
+     * Number of messages written
+     */
+    private final AtomicLong sent = new AtomicLong();
+
+    /**
+     * Number of messages replaced by a newer one before being written
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Number of messages the transport failed to send
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Number of messages dropped because the queue was full
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Total, longest and most recent time between queuing and writing a message, in nanoseconds
+     */
+    private final AtomicLong totalLatency = new AtomicLong(), maxLatency = new AtomicLong(), lastLatency = new AtomicLong();
+
+    /**
+     * Create a new communicator to the given server. It must be connected before it is used.
      *
-     * @param server server to connect to
+     * @param server web socket address of the server, or Transport.LOOPBACK for the in process server
      */
     public Communicator(String server) {
+        this(Transport.forServer(server));
+    }
 
-        try {
-            var socketFactory = new WebSocketFactory();
+    /**
+     * Create a new communicator over the given transport. It must be connected before it is used.
+     *
+     * @param transport carries the messages to and from the server
+     */
+    public Communicator(Transport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Connect to the server and start writing queued messages
+     *
+     * @throws IOException if the server cannot be reached
+     */
+    public synchronized void connect() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("Already connected");
+        }
+        transport.connect(this::receive);
 
-            //Connect to the server
-            ws = socketFactory.createSocket(server);
-            ws.connect();
-            logger.info("Connected to " + server);
+        //Write queued messages on a thread of their own
+        writer = new Thread(this::write, "Communicator writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
 
-            //When a message is received, call the receive method
-            ws.addListener(new WebSocketAdapter() {
-                @Override
-                public void onTextMessage(WebSocket websocket, String message) throws Exception {
-                    Communicator.this.receive(websocket, message);
-                }
-                @Override
-                public void onPingFrame(WebSocket webSocket, WebSocketFrame webSocketFrame) throws Exception {
-                    logger.info("Ping? Pong!");
-                }
-            });
-
-            //Error handling
-            ws.addListener(new WebSocketAdapter() {
-                @Override
-                public void onTextMessage(WebSocket websocket, String message) throws Exception {
-                    if(message.startsWith("ERROR")) {
-                        logger.error(message);
+    /**
+     * Disconnect from the server. Messages still waiting to be written are discarded.
+     */
+    public synchronized void close() {
+        if (writer != null) {
+            writer.interrupt();
+            writer = null;
+        }
+        synchronized (outbound) {
+            outbound.clear();
+            coalescing.clear();
+        }
+        transport.close();
+    }
+
+    /** Send a message to the server. The message is queued and written in the background.
+     *
+     * @param message Message to send
+     */
+    public void send(String message) {
+        int space = message.indexOf(' ');
+        String command = space < 0 ? message : message.substring(0, space);
+
+        synchronized (outbound) {
+            Outbound waiting = coalescing.get(command);
+            if (waiting != null) {
+                logger.debug("Coalescing {} into {}", message, waiting.message);
+                waiting.message = message;
+                coalesced.incrementAndGet();
+                return;
+            }
+            if (outbound.size() >= QUEUE_CAPACITY) {
+                logger.warn("Outbound queue full, dropping message: " + message);
+                dropped.incrementAndGet();
+                return;
+            }
+            var entry = new Outbound(message, System.nanoTime());
+            outbound.add(entry);
+            if (COALESCED.contains(command)) {
+                coalescing.put(command, entry);
+            }
+            outbound.notify();
+        }
+    }
+
+    /**
+     * Write queued messages to the socket as they arrive. Runs on the writer thread.
+     */
+    private void write() {
+        var batch = new ArrayList<String>();
+        while (true) {
+            long now;
+            synchronized (outbound) {
+                while (outbound.isEmpty()) {
+                    try {
+                        outbound.wait();
+                    } catch (InterruptedException e) {
+                        logger.info("Writer interrupted");
+                        return;
                     }
                 }
-                @Override
-                public void handleCallbackError(WebSocket webSocket, Throwable throwable) throws Exception {
-                    logger.error("Callback Error:" + throwable.getMessage());
-                    throwable.printStackTrace();
+                //Take everything waiting, so a burst is written together
+                now = System.nanoTime();
+                Outbound entry;
+                while ((entry = outbound.poll()) != null) {
+                    batch.add(entry.message);
+                    coalescing.values().remove(entry);
+                    long latency = now - entry.queued;
+                    totalLatency.addAndGet(latency);
+                    maxLatency.accumulateAndGet(latency, Math::max);
+                    lastLatency.set(latency);
                 }
-                @Override
-                public void onError(WebSocket webSocket, WebSocketException e) throws Exception {
-                    logger.error("Error:" + e.getMessage());
-                    e.printStackTrace();
+            }
+            for (String message : batch) {
+                logger.info("Sending message: " + message);
+                try {
+                    transport.send(message);
+                    sent.incrementAndGet();
+                } catch (RuntimeException e) {
+                    //One bad message must not stop the only writer
+                    logger.error("Unable to send message: " + message, e);
+                    failed.incrementAndGet();
                 }
-            });
-
-        } catch (Exception e){
-            logger.error("Socket error: " + e.getMessage());
-            e.printStackTrace();
+            }
+            batch.clear();
+        }
+    }
 
-            Alert error = new Alert(Alert.AlertType.ERROR,"Unable to communicate with the TetrECS server\n\n" + e.getMessage() + "\n\nPlease ensure you are connected to the VPN");
-            error.showAndWait();
-            System.exit(1);
+    /**
+     * Get the number of messages waiting to be written
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        synchronized (outbound) {
+            return outbound.size();
         }
     }
 
-    /** Send a message to the server
-     *
-     * @param message Message to send
+    /**
+     * Get the number of messages written so far
+     * @return messages sent
      */
-    public void send(String message) {
-        logger.info("Sending message: " + message);
+    public long getSentCount() {
+        return sent.get();
+    }
 
-        ws.sendText(message);
+    /**
+     * Get the number of messages replaced by a newer one before they were written
+     * @return messages coalesced
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
     }
 
     /**
-     * Add a new listener to receive messages from the server
+     * Get the number of messages the transport failed to send
+     * @return messages failed
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Get the number of messages dropped because the queue was full
+     * @return messages dropped
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Get how long the most recent message waited between being queued and written
+     * @param unit unit to return the time in
+     * @return flush latency
+     */
+    public long getLastFlushLatency(TimeUnit unit) {
+        return unit.convert(lastLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the longest any message waited between being queued and written
+     * @param unit unit to return the time in
+     * @return longest flush latency
+     */
+    public long getMaxFlushLatency(TimeUnit unit) {
+        return unit.convert(maxLatency.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the average time messages waited between being queued and written
+     * @param unit unit to return the time in
+     * @return average flush latency, or 0 if nothing has been written
+     */
+    public long getAverageFlushLatency(TimeUnit unit) {
+        long count = sent.get() + failed.get();
+        return count == 0 ? 0 : unit.convert(totalLatency.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Add a new listener to receive every message from the server, unparsed
      * @param listener the listener to add
      */
     public void addListener(CommunicationsListener listener) {
         this.handlers.add(listener);
     }
 
+    /**
+     * Add a new listener to receive the messages of the given types from the server
+     * @param listener the listener to add
+     * @param types types of message to receive
+     */
+    public void addListener(MessageListener listener, MessageType... types) {
+        synchronized (messageHandlers) {
+            for (MessageType type : types) {
+                messageHandlers.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(listener);
+            }
+        }
+    }
+
     /**
      * Clear all current listeners
      */
     public void clearListeners() {
         this.handlers.clear();
+        synchronized (messageHandlers) {
+            messageHandlers.clear();
+        }
     }
 
     /** Receive a message from the server. Relay to any attached listeners
      *
-     * @param websocket the socket
      * @param message the message that was received
      */
-    private void receive(WebSocket websocket, String message) {
+    private void receive(String message) {
         logger.info("Received: " + message);
 
         for(CommunicationsListener handler : handlers) {
-            handler.receiveCommunication(message);
+            try {
+                handler.receiveCommunication(message);
+            } catch (RuntimeException e) {
+                logger.error("Listener failed on message: " + message, e);
+            }
+        }
+
+        var parsed = Message.parse(message);
+        if (parsed.getType() == MessageType.ERROR) {
+            logger.error(message);
+        }
+        List<MessageListener> listeners;
+        synchronized (messageHandlers) {
+            listeners = messageHandlers.get(parsed.getType());
+        }
+        if (listeners == null) {
+            return;
+        }
+        for (MessageListener listener : listeners) {
+            //A failing listener must not stop the others, or the thread delivering the message
+            try {
+                listener.receiveMessage(parsed);
+            } catch (RuntimeException e) {
+                logger.error("Listener failed on message: " + message, e);
+            }
         }
     }
 
@@ -0,0 +1,424 @@
+package uk.ac.soton.comp1206.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * The LoopbackServer is an in process stand in for the TetrECS server.
+ *
+ * It speaks enough of the protocol for the lobby, multiplayer games and high scores: nicknames, channels and chat,
+ * starting a game, the shared piece sequence, scores, lives and deaths, and the online high score table. Every player
+ * in a channel is dealt the same pieces in the same order, as on the real server. Messages are handled on the thread
+ * which sends them and replies are handed straight to the receivers, so a whole game runs at memory speed.
+ */
+public class LoopbackServer {
+
+    private static final Logger logger = LogManager.getLogger(LoopbackServer.class);
+
+    /**
+     * Number of high scores kept
+     */
+    private static final int HISCORES = 10;
+
+    /**
+     * The server shared by every Transport.LOOPBACK connection
+     */
+    private static LoopbackServer shared;
+
+    /**
+     * A connection to the server
+     */
+    public static class Client {
+
+        /**
+         * Receives the messages sent to this client
+         */
+        private final Consumer<String> receiver;
+
+        /**
+         * Nickname of the client
+         */
+        private String nick;
+
+        /**
+         * Channel the client is in, or null
+         */
+        private Channel channel;
+
+        /**
+         * Score in the current game
+         */
+        private int score;
+
+        /**
+         * Lives left in the current game, or -1 once dead
+         */
+        private int lives = 3;
+
+        /**
+         * Pieces dealt to the client so far in the current game
+         */
+        private int pieces;
+
+        /**
+         * Create a client
+         * @param receiver receives the messages sent to the client
+         * @param nick starting nickname
+         */
+        private Client(Consumer<String> receiver, String nick) {
+            this.receiver = receiver;
+            this.nick = nick;
+        }
+
+        /**
+         * Send a message to the client
+         * @param message the message
+         */
+        private void send(String message) {
+            receiver.accept(message);
+        }
+    }
+
+    /**
+     * A channel players can chat and play in
+     */
+    private static class Channel {
+
+        /**
+         * Name of the channel
+         */
+        private final String name;
+
+        /**
+         * Players in the channel, the host first
+         */
+        private final List<Client> members = new ArrayList<>();
+
+        /**
+         * Pieces of the current game, shared by every player
+         */
+        private final List<Integer> sequence = new ArrayList<>();
+
+        /**
+         * Generates the piece sequence
+         */
+        private Random random;
+
+        /**
+         * Whether a game has started
+         */
+        private boolean started;
+
+        /**
+         * Create a channel
+         * @param name name of the channel
+         */
+        private Channel(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Send a message to everyone in the channel
+         * @param message the message
+         */
+        private void broadcast(String message) {
+            for (Client member : members) {
+                member.send(message);
+            }
+        }
+
+        /**
+         * Get a piece of the current game's sequence, generating it if no one has reached it yet
+         * @param index position in the sequence
+         * @return piece type
+         */
+        private int piece(int index) {
+            while (sequence.size() <= index) {
+                sequence.add(random.nextInt(GamePiece.PIECES));
+            }
+            return sequence.get(index);
+        }
+    }
+
+    /**
+     * Channels by name
+     */
+    private final Map<String, Channel> channels = new LinkedHashMap<>();
+
+    /**
+     * Online high scores, name and score
+     */
+    private final List<Map.Entry<String, Integer>> hiscores = new ArrayList<>();
+
+    /**
+     * Number given to the next guest
+     */
+    private int guests = 1;
+
+    /**
+     * Seed for the next game's piece sequence
+     */
+    private long seed;
+
+    /**
+     * Create a server with a random seed
+     */
+    public LoopbackServer() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Create a server whose games deal pieces from a fixed seed, so runs can be repeated
+     * @param seed seed for the piece sequences
+     */
+    public LoopbackServer(long seed) {
+        this.seed = seed;
+        for (int i = 1; i <= HISCORES; i++) {
+            hiscores.add(Map.entry("Loopback", i * 1000));
+        }
+        hiscores.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+    }
+
+    /**
+     * Get the server shared by every Transport.LOOPBACK connection, creating it if needed
+     * @return the shared server
+     */
+    public static synchronized LoopbackServer getShared() {
+        if (shared == null) {
+            shared = new LoopbackServer();
+        }
+        return shared;
+    }
+
+    /**
+     * Connect a new client
+     * @param receiver receives the messages sent to the client
+     * @return the client
+     */
+    public synchronized Client connect(Consumer<String> receiver) {
+        var client = new Client(receiver, "Guest" + guests++);
+        logger.info("Client {} connected", client.nick);
+        return client;
+    }
+
+    /**
+     * Disconnect a client, taking it out of its channel
+     * @param client the client
+     */
+    public synchronized void disconnect(Client client) {
+        logger.info("Client {} disconnected", client.nick);
+        part(client);
+    }
+
+    /**
+     * Handle a message from a client
+     * @param client the client which sent it
+     * @param raw the message
+     */
+    public synchronized void handle(Client client, String raw) {
+        int space = raw.indexOf(' ');
+        String command = space < 0 ? raw : raw.substring(0, space);
+        String body = space < 0 ? "" : raw.substring(space + 1).strip();
+        Channel channel = client.channel;
+
+        switch (command) {
+            case "NICK":
+                if (!body.isEmpty()) {
+                    client.nick = body;
+                }
+                client.send("NICK " + client.nick);
+                if (channel != null) {
+                    sendUsers(channel);
+                }
+                break;
+            case "LIST":
+                client.send("CHANNELS " + String.join("\n", channels.keySet()));
+                break;
+            case "CREATE":
+                if (body.isEmpty() || channels.containsKey(body)) {
+                    client.send("ERROR Unable to create channel " + body);
+                    break;
+                }
+                part(client);
+                channels.put(body, new Channel(body));
+                join(client, channels.get(body));
+                break;
+            case "JOIN": {
+                Channel joining = channels.get(body);
+                if (joining == null) {
+                    client.send("ERROR No such channel " + body);
+                } else if (joining.started) {
+                    client.send("ERROR The game in " + body + " has already started");
+                } else if (joining != channel) {
+                    part(client);
+                    join(client, joining);
+                }
+                break;
+            }
+            case "PART":
+                part(client);
+                break;
+            case "MSG":
+                if (channel != null) {
+                    channel.broadcast("MSG " + client.nick + ":" + body);
+                }
+                break;
+            case "START":
+                if (channel == null || channel.members.get(0) != client) {
+                    client.send("ERROR Only the host can start the game");
+                    break;
+                }
+                channel.started = true;
+                channel.sequence.clear();
+                channel.random = new Random(seed++);
+                for (Client member : channel.members) {
+                    member.score = 0;
+                    member.lives = 3;
+                    member.pieces = 0;
+                }
+                channel.broadcast("START");
+                break;
+            case "PIECE":
+                if (channel != null && channel.started) {
+                    client.send("PIECE " + channel.piece(client.pieces++));
+                }
+                break;
+            case "SCORE":
+                client.score = parse(body, client.score);
+                sendScores(channel);
+                break;
+            case "LIVES":
+                client.lives = parse(body, client.lives);
+                sendScores(channel);
+                break;
+            case "DIE":
+                client.lives = -1;
+                if (channel != null) {
+                    channel.broadcast("DIE " + client.nick);
+                    sendScores(channel);
+                }
+                break;
+            case "SCORES":
+                if (channel != null) {
+                    client.send(scores(channel));
+                }
+                break;
+            case "BOARD":
+                break;
+            case "HISCORES":
+                client.send("HISCORES " + hiscores.stream()
+                        .map(entry -> entry.getKey() + ":" + entry.getValue())
+                        .collect(Collectors.joining("\n")));
+                break;
+            case "HISCORE": {
+                int colon = body.lastIndexOf(':');
+                int score = colon < 0 ? -1 : parse(body.substring(colon + 1), -1);
+                if (score < 0) {
+                    client.send("ERROR Invalid high score " + body);
+                    break;
+                }
+                hiscores.add(Map.entry(body.substring(0, colon), score));
+                hiscores.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+                hiscores.subList(Math.min(HISCORES, hiscores.size()), hiscores.size()).clear();
+                client.send("NEWHISCORE " + body);
+                break;
+            }
+            default:
+                client.send("ERROR Unknown command " + command);
+        }
+    }
+
+    /**
+     * Add a client to a channel
+     * @param client the client
+     * @param channel the channel
+     */
+    private void join(Client client, Channel channel) {
+        channel.members.add(client);
+        client.channel = channel;
+        client.send("JOIN " + channel.name);
+        if (channel.members.size() == 1) {
+            client.send("HOST");
+        }
+        sendUsers(channel);
+    }
+
+    /**
+     * Take a client out of its channel, if it is in one. Empty channels are closed and a new host is chosen if the
+     * host left.
+     * @param client the client
+     */
+    private void part(Client client) {
+        Channel channel = client.channel;
+        if (channel == null) {
+            return;
+        }
+        boolean wasHost = channel.members.get(0) == client;
+        channel.members.remove(client);
+        client.channel = null;
+        client.send("PARTED");
+        if (channel.members.isEmpty()) {
+            channels.remove(channel.name);
+            return;
+        }
+        if (wasHost) {
+            channel.members.get(0).send("HOST");
+        }
+        sendUsers(channel);
+    }
+
+    /**
+     * Tell everyone in a channel who is in it
+     * @param channel the channel
+     */
+    private void sendUsers(Channel channel) {
+        channel.broadcast("USERS " + channel.members.stream().map(member -> member.nick)
+                .collect(Collectors.joining("\n")));
+    }
+
+    /**
+     * Tell everyone in a channel the scores
+     * @param channel the channel, or null to do nothing
+     */
+    private void sendScores(Channel channel) {
+        if (channel != null) {
+            channel.broadcast(scores(channel));
+        }
+    }
+
+    /**
+     * Get the scores message for a channel, highest first
+     * @param channel the channel
+     * @return the SCORES message
+     */
+    private static String scores(Channel channel) {
+        return "SCORES " + channel.members.stream()
+                .sorted(Comparator.comparingInt((Client member) -> member.score).reversed())
+                .map(member -> member.nick + ":" + member.score + ":" + (member.lives < 0 ? "DEAD" : member.lives))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Read a whole number
+     * @param text the text
+     * @param fallback value if the text is not a number
+     * @return the number
+     */
+    private static int parse(String text, int fallback) {
+        try {
+            return Integer.parseInt(text.strip());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package uk.ac.soton.comp1206.network;
+
+import java.util.function.Consumer;
+
+/**
+ * A transport which talks to a LoopbackServer in the same process. Messages are handled as they are sent, on the
+ * sending thread, with no network or encoding in between.
+ */
+public class LoopbackTransport implements Transport {
+
+    /**
+     * The server
+     */
+    private final LoopbackServer server;
+
+    /**
+     * This connection to the server, once connected
+     */
+    private LoopbackServer.Client client;
+
+    /**
+     * Create a transport to an in process server
+     * @param server the server
+     */
+    public LoopbackTransport(LoopbackServer server) {
+        this.server = server;
+    }
+
+    @Override
+    public void connect(Consumer<String> receiver) {
+        client = server.connect(receiver);
+    }
+
+    @Override
+    public void send(String message) {
+        if (client == null) {
+            throw new IllegalStateException("Not connected");
+        }
+        server.handle(client, message);
+    }
+
+    @Override
+    public void close() {
+        if (client != null) {
+            server.disconnect(client);
+            client = null;
+        }
+    }
+}
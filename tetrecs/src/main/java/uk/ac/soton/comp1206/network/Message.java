@@ -0,0 +1,144 @@
+package uk.ac.soton.comp1206.network;
+
+import javafx.util.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message from the server, parsed once when it arrives.
+ *
+ * A message is a command, then optionally a space or new line and a body. The body is kept as it was sent, and the
+ * helpers here read the common shapes of body, so listeners do not need to pick the text apart themselves.
+ */
+public final class Message {
+
+    /**
+     * Type of the message
+     */
+    private final MessageType type;
+
+    /**
+     * Command the message started with
+     */
+    private final String command;
+
+    /**
+     * Everything after the command, or an empty string
+     */
+    private final String body;
+
+    /**
+     * Create a message
+     * @param type type of the message
+     * @param command command the message started with
+     * @param body everything after the command
+     */
+    public Message(MessageType type, String command, String body) {
+        this.type = type;
+        this.command = command;
+        this.body = body;
+    }
+
+    /**
+     * Parse a message received from the server
+     * @param raw the text received
+     * @return the message
+     */
+    public static Message parse(String raw) {
+        String text = raw.strip();
+        int end = 0;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        String command = text.substring(0, end);
+        String body = end < text.length() ? text.substring(end + 1) : "";
+        return new Message(MessageType.of(command), command, body);
+    }
+
+    /**
+     * Get the type of the message
+     * @return type
+     */
+    public MessageType getType() {
+        return type;
+    }
+
+    /**
+     * Get the command the message started with
+     * @return command
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Get everything after the command
+     * @return body, empty if there was none
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Read the body as a whole number
+     * @return the number
+     * @throws NumberFormatException if the body is not a number
+     */
+    public int getInt() {
+        return Integer.parseInt(body.strip());
+    }
+
+    /**
+     * Read the body as lines, leaving out blank ones and the spaces around each
+     * @return the lines
+     */
+    public List<String> getLines() {
+        List<String> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            line = line.strip();
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Read the body as lines of name:score, as sent with SCORES and HISCORES. Anything after the score is ignored and
+     * lines which do not have a score are skipped.
+     * @return name and score of each line
+     */
+    public List<Pair<String, Integer>> getScores() {
+        List<Pair<String, Integer>> scores = new ArrayList<>();
+        for (String line : getLines()) {
+            String[] parts = line.split(":");
+            if (parts.length < 2) {
+                continue;
+            }
+            try {
+                scores.add(new Pair<>(parts[0], Integer.parseInt(parts[1].strip())));
+            } catch (NumberFormatException e) {
+                //Not a score line
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Read the body as a name and text separated by a colon, as sent with MSG
+     * @return name and text, with an empty name if there is no colon
+     */
+    public Pair<String, String> getChat() {
+        int colon = body.indexOf(':');
+        if (colon < 0) {
+            return new Pair<>("", body);
+        }
+        return new Pair<>(body.substring(0, colon), body.substring(colon + 1));
+    }
+
+    @Override
+    public String toString() {
+        return body.isEmpty() ? command : command + " " + body;
+    }
+}
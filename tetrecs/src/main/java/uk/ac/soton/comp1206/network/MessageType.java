@@ -0,0 +1,62 @@
+package uk.ac.soton.comp1206.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The commands the server can send, each message starting with one of them
+ */
+public enum MessageType {
+    /** A piece to add to the multiplayer sequence */
+    PIECE,
+    /** The scores and lives of everyone in the game */
+    SCORES,
+    /** The online high scores */
+    HISCORES,
+    /** A new online high score was accepted */
+    NEWHISCORE,
+    /** A chat message */
+    MSG,
+    /** The channels which can be joined */
+    CHANNELS,
+    /** The users in the channel */
+    USERS,
+    /** A channel was joined */
+    JOIN,
+    /** The channel was left */
+    PARTED,
+    /** This user is the host of the channel */
+    HOST,
+    /** This user's nickname */
+    NICK,
+    /** The game is starting */
+    START,
+    /** A player has died */
+    DIE,
+    /** Something went wrong */
+    ERROR,
+    /** Any command not listed here */
+    UNKNOWN;
+
+    /**
+     * Types by command
+     */
+    private static final Map<String, MessageType> byCommand = new HashMap<>();
+
+    static {
+        for (MessageType type : values()) {
+            if (type != UNKNOWN) {
+                byCommand.put(type.name(), type);
+            }
+        }
+    }
+
+    /**
+     * Find the type of a command
+     * @param command command at the start of a message
+     * @return its type, or UNKNOWN if it is not one of these
+     */
+    public static MessageType of(String command) {
+        return byCommand.getOrDefault(command, UNKNOWN);
+    }
+}
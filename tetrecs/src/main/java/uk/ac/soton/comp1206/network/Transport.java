@@ -0,0 +1,48 @@
+package uk.ac.soton.comp1206.network;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A Transport carries text messages between the Communicator and a server.
+ *
+ * The WebSocketTransport talks to a real server over the network, and the LoopbackTransport talks to a LoopbackServer
+ * in the same process, so the game can be played and tested without a connection.
+ */
+public interface Transport {
+
+    /**
+     * Name of the server which selects a LoopbackTransport on the shared LoopbackServer
+     */
+    String LOOPBACK = "loopback";
+
+    /**
+     * Connect to the server
+     * @param receiver called with each message received, on the transport's own thread
+     * @throws IOException if the server cannot be reached
+     */
+    void connect(Consumer<String> receiver) throws IOException;
+
+    /**
+     * Send a message to the server. Only called once connected, and from one thread at a time.
+     * @param message the message
+     */
+    void send(String message);
+
+    /**
+     * Disconnect from the server
+     */
+    void close();
+
+    /**
+     * Create the transport for a server
+     * @param server LOOPBACK for the shared in process server, otherwise a web socket address
+     * @return the transport, not yet connected
+     */
+    static Transport forServer(String server) {
+        if (LOOPBACK.equals(server)) {
+            return new LoopbackTransport(LoopbackServer.getShared());
+        }
+        return new WebSocketTransport(server);
+    }
+}
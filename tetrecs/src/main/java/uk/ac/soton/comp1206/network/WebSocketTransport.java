@@ -0,0 +1,84 @@
+package uk.ac.soton.comp1206.network;
+
+import com.neovisionaries.ws.client.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A transport which talks to a web socket server
+ */
+public class WebSocketTransport implements Transport {
+
+    private static final Logger logger = LogManager.getLogger(WebSocketTransport.class);
+
+    /**
+     * Address of the server
+     */
+    private final String server;
+
+    /**
+     * The socket, once connected
+     */
+    private WebSocket ws;
+
+    /**
+     * Create a transport to a web socket server
+     * @param server address of the server
+     */
+    public WebSocketTransport(String server) {
+        this.server = server;
+    }
+
+    @Override
+    public void connect(Consumer<String> receiver) throws IOException {
+        try {
+            var socketFactory = new WebSocketFactory();
+
+            //Connect to the server
+            ws = socketFactory.createSocket(server);
+            ws.connect();
+            logger.info("Connected to " + server);
+        } catch (WebSocketException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        //When a message is received, pass it on
+        ws.addListener(new WebSocketAdapter() {
+            @Override
+            public void onTextMessage(WebSocket websocket, String message) throws Exception {
+                receiver.accept(message);
+            }
+            @Override
+            public void onPingFrame(WebSocket webSocket, WebSocketFrame webSocketFrame) throws Exception {
+                logger.info("Ping? Pong!");
+            }
+        });
+
+        //Error handling
+        ws.addListener(new WebSocketAdapter() {
+            @Override
+            public void handleCallbackError(WebSocket webSocket, Throwable throwable) throws Exception {
+                logger.error("Callback Error:" + throwable.getMessage(), throwable);
+            }
+            @Override
+            public void onError(WebSocket webSocket, WebSocketException e) throws Exception {
+                logger.error("Error:" + e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public void send(String message) {
+        ws.sendText(message);
+    }
+
+    @Override
+    public void close() {
+        if (ws != null) {
+            ws.disconnect();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package uk.ac.soton.comp1206.replay;
+
+import uk.ac.soton.comp1206.game.BufferedPieceSource;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A PieceSource which deals a fixed sequence of pieces stored in a replay
+ */
+public class RecordedPieceSource extends BufferedPieceSource {
+
+    /**
+     * The pieces to deal
+     */
+    private final int[] pieces;
+
+    /**
+     * Index of the next piece to deal
+     */
+    private int position;
+
+    /**
+     * Create a source dealing the given pieces
+     * @param pieces the pieces to deal
+     */
+    public RecordedPieceSource(int[] pieces) {
+        super(DEFAULT_LOOKAHEAD);
+        this.pieces = pieces;
+    }
+
+    @Override
+    protected int generate() {
+        if (position == pieces.length) {
+            throw new NoSuchElementException("The replay has no more pieces");
+        }
+        return pieces[position++];
+    }
+
+    @Override
+    protected void restart() {
+        position = 0;
+    }
+}
@@ -0,0 +1,365 @@
+package uk.ac.soton.comp1206.replay;
+
+import uk.ac.soton.comp1206.game.BagPieceSource;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.PieceSource;
+import uk.ac.soton.comp1206.game.UniformPieceSource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * A Replay holds every action taken in a game, which is enough to play the game again from the start.
+ *
+ * Each action is packed into a single number, with the kind of action in the bottom two bits and its argument above:
+ * the block index for a placement, or the number of turns for a rotation. On a 5x5 grid every action fits in one byte
+ * of the file. Games dealt from a seeded piece source only store the seed; any other source, such as the server in a
+ * multiplayer game, has its pieces stored one byte each.
+ *
+ * The file is a "TRP" header and version byte, then the grid size, the piece source, the actions, any stored pieces
+ * and finally the score the game ended with, so the replay can be checked.
+ */
+public class Replay {
+
+    /**
+     * File header
+     */
+    private static final byte[] MAGIC = { 'T', 'R', 'P' };
+
+    /**
+     * File format version
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Largest replay file which will be read, in bytes. Every length in the file is checked against the bytes left,
+     * so this also bounds how much a damaged or hostile file can make the reader allocate.
+     */
+    public static final int MAX_SIZE = 1 << 24;
+
+    /**
+     * File extension for replays
+     */
+    public static final String EXTENSION = ".tetr";
+
+    /**
+     * Directory games are saved to
+     */
+    public static final String DIRECTORY = "replays";
+
+    /**
+     * A piece was played, with the index y * cols + x of its centre as the argument
+     */
+    public static final int PLACE = 0;
+
+    /**
+     * The current piece was rotated, with the number of turns as the argument
+     */
+    public static final int ROTATE = 1;
+
+    /**
+     * The current and following pieces were swapped
+     */
+    public static final int SWAP = 2;
+
+    /**
+     * The time for the current piece ran out
+     */
+    public static final int TIMER = 3;
+
+    /**
+     * The pieces are stored in the replay
+     */
+    public static final int RECORDED = 0;
+
+    /**
+     * The pieces come from a UniformPieceSource with the stored seed
+     */
+    public static final int UNIFORM = 1;
+
+    /**
+     * The pieces come from a BagPieceSource with the stored seed
+     */
+    public static final int BAG = 2;
+
+    /**
+     * Number of columns and rows
+     */
+    private final int cols, rows;
+
+    /**
+     * Where the pieces come from: RECORDED, UNIFORM or BAG
+     */
+    private final int source;
+
+    /**
+     * Seed for the piece source
+     */
+    private final long seed;
+
+    /**
+     * Every action, packed
+     */
+    private final int[] actions;
+
+    /**
+     * Every piece dealt, when they are stored
+     */
+    private final int[] pieces;
+
+    /**
+     * The score the game ended with
+     */
+    private final int score;
+
+    /**
+     * Create a replay
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param source where the pieces come from: RECORDED, UNIFORM or BAG
+     * @param seed seed for the piece source
+     * @param actions every action, packed
+     * @param pieces every piece dealt, when they are stored
+     * @param score the score the game ended with
+     */
+    public Replay(int cols, int rows, int source, long seed, int[] actions, int[] pieces, int score) {
+        this.cols = cols;
+        this.rows = rows;
+        this.source = source;
+        this.seed = seed;
+        this.actions = actions;
+        this.pieces = pieces;
+        this.score = score;
+    }
+
+    /**
+     * Pack an action
+     * @param kind PLACE, ROTATE, SWAP or TIMER
+     * @param argument argument of the action
+     * @return packed action
+     */
+    public static int action(int kind, int argument) {
+        return argument << 2 | kind;
+    }
+
+    /**
+     * Get the kind of a packed action
+     * @param action packed action
+     * @return PLACE, ROTATE, SWAP or TIMER
+     */
+    public static int kind(int action) {
+        return action & 3;
+    }
+
+    /**
+     * Get the argument of a packed action
+     * @param action packed action
+     * @return argument
+     */
+    public static int argument(int action) {
+        return action >>> 2;
+    }
+
+    /**
+     * Create a piece source which deals the same pieces as the recorded game
+     * @return piece source
+     */
+    public PieceSource createPieceSource() {
+        switch (source) {
+            case UNIFORM:
+                return new UniformPieceSource(seed);
+            case BAG:
+                return new BagPieceSource(seed);
+            default:
+                return new RecordedPieceSource(pieces);
+        }
+    }
+
+    /**
+     * Write this replay
+     * @param out stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.write(VERSION);
+        Varint.write(data, cols);
+        Varint.write(data, rows);
+        data.write(source);
+        if (source != RECORDED) {
+            data.writeLong(seed);
+        }
+        Varint.write(data, actions.length);
+        for (int action : actions) {
+            Varint.write(data, action);
+        }
+        if (source == RECORDED) {
+            Varint.write(data, pieces.length);
+            for (int piece : pieces) {
+                data.write(piece);
+            }
+        }
+        Varint.write(data, score);
+        data.flush();
+    }
+
+    /**
+     * Read a replay. The stream is read to its end, up to MAX_SIZE bytes.
+     * @param in stream to read from
+     * @return replay
+     * @throws IOException if the stream cannot be read or is not a replay
+     */
+    public static Replay read(InputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_SIZE + 1);
+        if (bytes.length > MAX_SIZE) {
+            throw new IOException("Replay is larger than " + MAX_SIZE + " bytes");
+        }
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes));
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a replay");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version: " + version);
+        }
+        int cols = Varint.read(data);
+        int rows = Varint.read(data);
+        if (cols < 1 || cols > Grid.MAX_COLS || rows < 1 || rows > Grid.MAX_ROWS) {
+            throw new IOException("Invalid grid size in replay: " + cols + "x" + rows);
+        }
+        int source = data.readUnsignedByte();
+        if (source > BAG) {
+            throw new IOException("Unknown piece source in replay: " + source);
+        }
+        long seed = source == RECORDED ? 0 : data.readLong();
+        int[] actions = new int[length(data, "actions")];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = Varint.read(data);
+        }
+        int[] pieces = new int[0];
+        if (source == RECORDED) {
+            pieces = new int[length(data, "pieces")];
+            for (int i = 0; i < pieces.length; i++) {
+                pieces[i] = data.readUnsignedByte();
+            }
+        }
+        int score = Varint.read(data);
+        return new Replay(cols, rows, source, seed, actions, pieces, score);
+    }
+
+    /**
+     * Read the length of a list, checking it could fit in what is left of the replay. Every entry takes at least one
+     * byte.
+     * @param data stream to read from, holding the rest of the replay
+     * @param name what the list holds, for the error
+     * @return length
+     * @throws IOException if the length is negative or longer than the rest of the replay
+     */
+    private static int length(DataInputStream data, String name) throws IOException {
+        int length = Varint.read(data);
+        if (length < 0 || length > data.available()) {
+            throw new IOException("Invalid number of " + name + " in replay: " + Integer.toUnsignedString(length));
+        }
+        return length;
+    }
+
+    /**
+     * Save this replay to a file, creating its directory if needed
+     * @param path file to save to
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Load a replay from a file
+     * @param path file to load
+     * @return replay
+     * @throws IOException if the file cannot be read or is not a replay
+     */
+    public static Replay load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Load the most recently saved replay
+     * @return replay, or null if none have been saved
+     * @throws IOException if the replay cannot be read
+     */
+    public static Replay loadLatest() throws IOException {
+        Path directory = Path.of(DIRECTORY);
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        Path latest;
+        try (Stream<Path> files = Files.list(directory)) {
+            latest = files.filter(p -> p.toString().endsWith(EXTENSION))
+                    .max(Comparator.comparing(p -> p.toFile().lastModified()))
+                    .orElse(null);
+        }
+        return latest == null ? null : load(latest);
+    }
+
+    /**
+     * Get the number of columns
+     * @return columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows
+     * @return rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the number of actions
+     * @return actions
+     */
+    public int size() {
+        return actions.length;
+    }
+
+    /**
+     * Get a packed action
+     * @param index index of the action
+     * @return packed action
+     */
+    public int getAction(int index) {
+        return actions[index];
+    }
+
+    /**
+     * Get the score the game ended with
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+}
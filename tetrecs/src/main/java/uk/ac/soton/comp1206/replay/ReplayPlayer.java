@@ -0,0 +1,194 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.engine.EngineState;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.engine.TetrecsEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The ReplayPlayer plays a Replay again on a headless engine, as fast as it can.
+ *
+ * Every KEYFRAME_INTERVAL actions it keeps a snapshot of the engine, so seeking only needs to play forward from the
+ * nearest snapshot rather than from the start. Snapshots are taken the first time the player passes each point, so they
+ * cost nothing in the replay file.
+ */
+public class ReplayPlayer {
+
+    private static final Logger logger = LogManager.getLogger(ReplayPlayer.class);
+
+    /**
+     * Number of actions between keyframes
+     */
+    public static final int KEYFRAME_INTERVAL = 256;
+
+    /**
+     * The replay being played
+     */
+    private final Replay replay;
+
+    /**
+     * The engine the replay is played on
+     */
+    private final GameEngine engine;
+
+    /**
+     * Snapshots of the engine before every KEYFRAME_INTERVAL actions
+     */
+    private final List<EngineState> keyframes = new ArrayList<>();
+
+    /**
+     * Number of actions played so far
+     */
+    private int position;
+
+    /**
+     * Create a player at the start of a replay
+     * @param replay replay to play
+     */
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+        this.engine = new TetrecsEngine(replay.getCols(), replay.getRows(), replay.createPieceSource());
+        engine.start();
+        keyframes.add(engine.save());
+    }
+
+    /**
+     * Play an action on an engine
+     * @param engine engine to play on
+     * @param action packed action
+     */
+    public static void apply(GameEngine engine, int action) {
+        int argument = Replay.argument(action);
+        switch (Replay.kind(action)) {
+            case Replay.PLACE:
+                int cols = engine.getGrid().getCols();
+                engine.play(argument % cols, argument / cols);
+                break;
+            case Replay.ROTATE:
+                engine.rotate(argument);
+                break;
+            case Replay.SWAP:
+                engine.swap();
+                break;
+            default:
+                engine.timerExpired();
+                break;
+        }
+    }
+
+    /**
+     * Play the next action
+     * @return whether there was an action to play
+     */
+    public boolean step() {
+        if (position == replay.size()) {
+            return false;
+        }
+        apply(engine, replay.getAction(position));
+        position++;
+        if (position % KEYFRAME_INTERVAL == 0 && position / KEYFRAME_INTERVAL == keyframes.size()) {
+            keyframes.add(engine.save());
+        }
+        return true;
+    }
+
+    /**
+     * Play every remaining action
+     */
+    public void runToEnd() {
+        while (step()) {
+        }
+    }
+
+    /**
+     * Move to the point just before the given action
+     * @param target number of actions to have played
+     */
+    public void seek(int target) {
+        target = Math.max(0, Math.min(target, replay.size()));
+        int keyframe = Math.min(target / KEYFRAME_INTERVAL, keyframes.size() - 1);
+        if (target < position || keyframe > position / KEYFRAME_INTERVAL) {
+            engine.load(keyframes.get(keyframe));
+            position = keyframe * KEYFRAME_INTERVAL;
+        }
+        while (position < target) {
+            step();
+        }
+    }
+
+    /**
+     * Play the whole replay and check it reaches the score it recorded
+     * @return whether the score matches
+     */
+    public boolean verify() {
+        runToEnd();
+        return engine.getScore() == replay.getScore();
+    }
+
+    /**
+     * Get the engine the replay is played on
+     * @return engine
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Get the number of actions played so far
+     * @return position
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Verify every replay in the given files and directories, printing any which do not reach their recorded score
+     * @param args replay files, or directories of them
+     * @throws IOException if a directory cannot be listed
+     */
+    public static void main(String[] args) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        for (String arg : args.length == 0 ? new String[] { "replays" } : args) {
+            Path path = Path.of(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    paths.addAll(files.filter(p -> p.toString().endsWith(Replay.EXTENSION)).sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else {
+                paths.add(path);
+            }
+        }
+
+        int failed = 0;
+        long actions = 0;
+        long start = System.nanoTime();
+        for (Path path : paths) {
+            try {
+                Replay replay = Replay.load(path);
+                ReplayPlayer player = new ReplayPlayer(replay);
+                actions += replay.size();
+                if (!player.verify()) {
+                    failed++;
+                    System.out.println(path + ": recorded " + replay.getScore() + ", replayed "
+                            + player.getEngine().getScore());
+                }
+            } catch (IOException | RuntimeException e) {
+                failed++;
+                System.out.println(path + ": " + e);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d replays, %d failed, %.0f actions/s%n", paths.size(), failed, actions / seconds);
+        logger.info("Verified " + paths.size() + " replays");
+    }
+}
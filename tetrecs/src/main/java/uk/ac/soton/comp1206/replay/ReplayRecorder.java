@@ -0,0 +1,158 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.game.BagPieceSource;
+import uk.ac.soton.comp1206.game.PieceSource;
+import uk.ac.soton.comp1206.game.RandomPieceSource;
+import uk.ac.soton.comp1206.game.UniformPieceSource;
+
+import java.util.Arrays;
+
+/**
+ * The ReplayRecorder collects the actions taken in a game as they happen, ready to be saved as a Replay.
+ *
+ * Every action is recorded on the game thread as the engine applies it, so the recorder needs no locking of its own.
+ * Finishing reads the engine as well, so it should also be done on the game thread, for example through Game.ask.
+ */
+public class ReplayRecorder {
+
+    private static final Logger logger = LogManager.getLogger(ReplayRecorder.class);
+
+    /**
+     * The engine of the game being recorded
+     */
+    private final GameEngine engine;
+
+    /**
+     * Where the pieces come from
+     */
+    private final int source;
+
+    /**
+     * Seed for the piece source
+     */
+    private final long seed;
+
+    /**
+     * The actions so far, packed
+     */
+    private int[] actions = new int[64];
+
+    /**
+     * Number of actions so far
+     */
+    private int actionCount;
+
+    /**
+     * The pieces dealt so far, when they need storing
+     */
+    private int[] pieces = new int[64];
+
+    /**
+     * Number of pieces stored so far
+     */
+    private int pieceCount;
+
+    /**
+     * Start recording a game. This should be called just after the engine is reset.
+     * @param engine the engine of the game
+     */
+    public ReplayRecorder(GameEngine engine) {
+        this.engine = engine;
+        PieceSource pieces = engine.getPieceSource();
+        if (pieces instanceof UniformPieceSource) {
+            source = Replay.UNIFORM;
+        } else if (pieces instanceof BagPieceSource) {
+            source = Replay.BAG;
+        } else {
+            source = Replay.RECORDED;
+        }
+        seed = source == Replay.RECORDED ? 0 : ((RandomPieceSource) pieces).getSeed();
+    }
+
+    /**
+     * Record a piece being played
+     * @param x column of the centre
+     * @param y row of the centre
+     */
+    public void place(int x, int y) {
+        add(Replay.action(Replay.PLACE, y * engine.getGrid().getCols() + x));
+    }
+
+    /**
+     * Record the current piece being rotated
+     * @param rotations number of clockwise turns
+     */
+    public void rotate(int rotations) {
+        int turns = Math.floorMod(rotations, 4);
+        if (turns != 0) {
+            add(Replay.action(Replay.ROTATE, turns));
+        }
+    }
+
+    /**
+     * Record the pieces being swapped
+     */
+    public void swap() {
+        add(Replay.action(Replay.SWAP, 0));
+    }
+
+    /**
+     * Record the time for a piece running out
+     */
+    public void timer() {
+        add(Replay.action(Replay.TIMER, 0));
+    }
+
+    /**
+     * Store any pieces dealt since the last call, if the pieces need storing. This should be called after every
+     * action which can deal a piece.
+     */
+    public void dealt() {
+        if (source != Replay.RECORDED) {
+            return;
+        }
+        int fresh = engine.getPiecesDealt() - pieceCount;
+        if (fresh >= 2) {
+            //A fresh deal, which takes the current piece and then the following piece
+            addPiece(engine.getCurrentPiece().getType());
+        }
+        if (fresh >= 1) {
+            addPiece(engine.getFollowingPiece().getType());
+        }
+    }
+
+    /**
+     * Finish recording
+     * @return the replay of the game so far
+     */
+    public Replay finish() {
+        logger.info("Recorded " + actionCount + " actions");
+        return new Replay(engine.getGrid().getCols(), engine.getGrid().getRows(), source, seed,
+                Arrays.copyOf(actions, actionCount), Arrays.copyOf(pieces, pieceCount), engine.getScore());
+    }
+
+    /**
+     * Add a packed action
+     * @param action packed action
+     */
+    private void add(int action) {
+        if (actionCount == actions.length) {
+            actions = Arrays.copyOf(actions, actionCount * 2);
+        }
+        actions[actionCount++] = action;
+    }
+
+    /**
+     * Add a piece which has been dealt
+     * @param type piece type
+     */
+    private void addPiece(int type) {
+        if (pieceCount == pieces.length) {
+            pieces = Arrays.copyOf(pieces, pieceCount * 2);
+        }
+        pieces[pieceCount++] = type;
+    }
+}
@@ -0,0 +1,54 @@
+package uk.ac.soton.comp1206.replay;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Reads and writes unsigned integers as variable length quantities: seven bits per byte, least significant first,
+ * with the top bit set on every byte except the last. Values below 128 take a single byte.
+ */
+public class Varint {
+
+    /**
+     * Only static helpers
+     */
+    private Varint() {
+    }
+
+    /**
+     * Write an unsigned integer
+     * @param out stream to write to
+     * @param value value to write, treated as unsigned
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Read an unsigned integer
+     * @param in stream to read from
+     * @return value read
+     * @throws IOException if the stream cannot be read, ends early or holds a value which is too long
+     */
+    public static int read(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Replay ended part way through a number");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in replay");
+    }
+}
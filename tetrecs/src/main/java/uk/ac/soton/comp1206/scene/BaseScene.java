@@ -43,10 +43,41 @@ public abstract class BaseScene {
     public abstract void build();
 
     /**
-     * Create a new JavaFX scene using the root contained within this scene
+     * Check whether the scene can be kept once built and shown again, rather than built afresh each time
+     * @return whether the scene can be reused
+     */
+    public boolean isReusable() {
+        return false;
+    }
+
+    /**
+     * Check whether the layout has been built
+     * @return whether build has been called
+     */
+    public boolean isBuilt() {
+        return root != null;
+    }
+
+    /**
+     * Put a kept scene back to how it looked when first built, before it is shown again
+     */
+    public void reset() {
+    }
+
+    /**
+     * Stop anything left running, such as animations, before another scene is shown in place of this one
+     */
+    public void hide() {
+    }
+
+    /**
+     * Create a new JavaFX scene using the root contained within this scene, or return the one already created
      * @return JavaFX scene
      */
     public Scene setScene() {
+        if (this.scene != null) {
+            return this.scene;
+        }
         var previous = gameWindow.getScene();
         Scene scene = new Scene(root, previous.getWidth(), previous.getHeight(), Color.BLACK);
         scene.getStylesheets().add(getClass().getResource("/style/game.css").toExternalForm());
@@ -1,10 +1,13 @@
 package uk.ac.soton.comp1206.scene;
 
 import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
 import javafx.animation.KeyFrame;
-import javafx.animation.KeyValue;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -18,17 +21,24 @@ import javafx.util.Duration;
 import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.bot.Bot;
+import uk.ac.soton.comp1206.bot.Move;
 import uk.ac.soton.comp1206.component.*;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.replay.Replay;
+import uk.ac.soton.comp1206.replay.ReplayRecorder;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.utility.Assets;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Single Player challenge scene. Holds the UI for the single player challenge mode in the game.
@@ -36,6 +46,18 @@ import java.util.Stack;
 public class ChallengeScene extends BaseScene {
 
     private static final Logger logger = LogManager.getLogger(ChallengeScene.class);
+    /**
+     * Pause between moves when the bot is playing, in milliseconds
+     */
+    protected static final int AUTOPLAY_DELAY = 400;
+    /**
+     * Time between actions when watching a replay, in milliseconds
+     */
+    protected static final int REPLAY_STEP = 600;
+    /**
+     * How many times faster a replay plays when fast forwarding
+     */
+    protected static final double FAST_FORWARD = 8;
     /**
      * Current game
      */
@@ -62,9 +84,24 @@ public class ChallengeScene extends BaseScene {
      */
     protected ProgressBar timeBar = new ProgressBar();
     /**
-     * Set the TimeBar animation during a game loop
+     * Redraws the TimeBar from the game's deadline on every frame
+     */
+    protected AnimationTimer timeBarTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            timeBar.setProgress(game.getTimerProgress());
+        }
+    };
+    /**
+     * Pauses the game while the window does not have focus
      */
-    protected Timeline timeline;
+    protected ChangeListener<Boolean> focusListener = (observable, was, focused) -> {
+        if (focused) {
+            game.resume();
+        } else {
+            game.pause();
+        }
+    };
     /**
      * Store the highest score value in a hbox
      */
@@ -93,6 +130,34 @@ public class ChallengeScene extends BaseScene {
      * The initial y coordinate of the block
      */
     protected int keyY = 0;
+    /**
+     * Picks moves when the bot is playing
+     */
+    protected Bot bot = new Bot();
+    /**
+     * Whether the bot is playing
+     */
+    protected boolean autoplay = false;
+    /**
+     * Bumped every time the bot is turned on or off, so moves and pauses from an earlier run are dropped
+     */
+    private int autoplayRun;
+    /**
+     * Whether a search for the bot is still running
+     */
+    private boolean searching;
+    /**
+     * The replay being watched, or null when playing
+     */
+    protected Replay replay;
+    /**
+     * Number of replay actions played so far
+     */
+    protected int replayPosition = 0;
+    /**
+     * Plays the replay actions one at a time
+     */
+    protected Timeline replayTimeline;
 
 
 
@@ -106,6 +171,16 @@ public class ChallengeScene extends BaseScene {
         logger.info("Creating Challenge Scene");
     }
 
+    /**
+     * Create a new challenge scene which plays back a replay
+     * @param gameWindow the Game Window
+     * @param replay the replay to watch
+     */
+    public ChallengeScene(GameWindow gameWindow, Replay replay) {
+        this(gameWindow);
+        this.replay = replay;
+    }
+
     /**
      * Build the Challenge window
      */
@@ -121,6 +196,7 @@ public class ChallengeScene extends BaseScene {
         challengePane.setMaxWidth(gameWindow.getWidth());
         challengePane.setMaxHeight(gameWindow.getHeight());
         challengePane.getStyleClass().add("challenge-background");
+        challengePane.setBackground(Assets.background("bg4.jpg"));
         root.getChildren().add(challengePane);
 
         var mainPane = new BorderPane();
@@ -255,18 +331,13 @@ public class ChallengeScene extends BaseScene {
         }
 
     /**
-     * Set the timeBar animation in a game loop
-     * @param duration total time
+     * Stop updating the TimeBar and stop pausing the game on focus changes
      */
-    protected void gameLoop(int duration) {
-        timeline = new Timeline(
-                new KeyFrame(Duration.ZERO, new KeyValue(timeBar.progressProperty(), 1)),
-                new KeyFrame(Duration.millis(duration), e-> {
-                }, new KeyValue(timeBar.progressProperty(), 0))
-
-        );
-        timeline.play();
-
+    protected void stopTimeBar() {
+        timeBarTimer.stop();
+        if (scene.getWindow() != null) {
+            scene.getWindow().focusedProperty().removeListener(focusListener);
+        }
     }
 
     /**
@@ -283,7 +354,6 @@ public class ChallengeScene extends BaseScene {
      */
     protected void rightClicked(GameBlock gameBlock) {
         game.rotateCurrentPiece();
-        currentPieceboard.display(game.getCurrentPiece());
     }
 
     /**
@@ -301,9 +371,7 @@ public class ChallengeScene extends BaseScene {
      * @param gameBlock the Game Block that was clocked
      */
     private void blockClicked(GameBlock gameBlock) {
-        if(game.blockClicked(gameBlock)){
-            game.resetGameLoop();
-        }
+        game.blockClicked(gameBlock);
     }
 
     /**
@@ -320,8 +388,6 @@ public class ChallengeScene extends BaseScene {
      */
     private void swapPiece(){
         game.swapCurrentPiece();
-        currentPieceboard.display(game.getCurrentPiece());
-        nextPieceboard.display(game.getFollowingPiece());
         multimedia.playSound("transition.wav");
 
     }
@@ -333,7 +399,6 @@ public class ChallengeScene extends BaseScene {
     private void rotatePiece(GameBlock gameBlock){
         Multimedia.playSound("rotate.wav");
         game.rotateCurrentPiece();
-        currentPieceboard.display(game.getCurrentPiece());
 
     }
     /**
@@ -342,8 +407,12 @@ public class ChallengeScene extends BaseScene {
     public void setupGame() {
         logger.info("Starting a new challenge");
 
-        //Start new game
-        game = new Game(5, 5);
+        //Start new game, dealing the same pieces as the replay when watching one
+        if (replay == null) {
+            game = new Game(5, 5);
+        } else {
+            game = new Game(replay.getCols(), replay.getRows(), replay.createPieceSource());
+        }
     }
 
     /**
@@ -353,21 +422,34 @@ public class ChallengeScene extends BaseScene {
     public void initialise() {
         logger.info("Initialising Challenge");
         readScore();
-        //Handle block on gameboard grid being clicked
         game.setNextPieceListener(this::nextPiece);
-        board.setOnBlockClick(this::blockClicked);
-        board.setOnRightClicked(this::rightClicked);
-        currentPieceboard.setOnBlockClick(this::rotatePiece);
-        nextPieceboard.setOnBlockClick(this::swapPiece);
         game.setLineClearedListener(this::lineCleared);
-        game.setGameLoopListener(this::gameLoop);
         game.setGameOverListener(game-> {
+            autoplay = false;
+            autoplayRun++;
             game.gameEnded();
-            timeline.stop();
+            stopTimeBar();
+            if (replay != null) {
+                stopReplay();
+                gameWindow.startMenu();
+                return;
+            }
+            saveReplay();
             gameWindow.startScore(this.game);
         });
         game.getScoreProperty().addListener(this::getHighestScore);
+        timeBarTimer.start();
+        if (replay != null) {
+            startReplay();
+            return;
+        }
+        //Handle block on gameboard grid being clicked
+        board.setOnBlockClick(this::blockClicked);
+        board.setOnRightClicked(this::rightClicked);
+        currentPieceboard.setOnBlockClick(this::rotatePiece);
+        nextPieceboard.setOnBlockClick(this::swapPiece);
         game.start();
+        scene.getWindow().focusedProperty().addListener(focusListener);
         this.multimedia.playBackgroundMusic("game.wav");
         scene.setOnKeyPressed(this::keyPressed);
     }
@@ -394,8 +476,11 @@ public class ChallengeScene extends BaseScene {
             keyX+=1;
             board.getBlock(keyX,keyY).hover();
         }else if((keyEvent.getCode().equals(KeyCode.ESCAPE))){
+            autoplay = false;
+            autoplayRun++;
             game.gameEnded();
-            timeline.stop();
+            saveReplay();
+            stopTimeBar();
             Multimedia.stopBackgroundMusic();
             gameWindow.startMenu();
 
@@ -411,6 +496,8 @@ public class ChallengeScene extends BaseScene {
             blockClicked(board.getBlock(keyX, keyY));
 
 
+        }else if(keyEvent.getCode() == KeyCode.B) {
+            toggleAutoplay();
         }
     }
 
@@ -419,13 +506,186 @@ public class ChallengeScene extends BaseScene {
      * @param number number of rotations
      */
     protected void rotate(int number ){
-        for(int x = 0; x< number; x++) {
-            game.rotateCurrentPiece();
-        }
-        currentPieceboard.display(game.getCurrentPiece());
+        game.rotateCurrentPiece(number);
         multimedia.playSound("rotate.wav");
 
     }
 
+    /**
+     * Save the replay of this game into the replays directory. The recording is finished on the game thread, after
+     * any actions still queued there, and saved from there too.
+     */
+    protected void saveReplay() {
+        ReplayRecorder recorder = game.getRecorder();
+        if (replay != null || recorder == null) {
+            return;
+        }
+        Path path = Path.of(Replay.DIRECTORY, System.currentTimeMillis() + Replay.EXTENSION);
+        game.ask(engine -> recorder.finish()).whenComplete((finished, error) -> {
+            if (error != null) {
+                logger.error("Unable to finish replay " + path, error);
+                return;
+            }
+            try {
+                finished.save(path);
+                logger.info("Saved replay " + path);
+            } catch (IOException e) {
+                logger.error("Unable to save replay " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Start watching the replay. The game runs without its own timer, and the replay runs it out instead.
+     */
+    protected void startReplay() {
+        logger.info("Watching replay of " + replay.size() + " actions");
+        game.setClocked(false);
+        game.start();
+        scene.setOnKeyPressed(this::replayKeyPressed);
+        replayTimeline = new Timeline(new KeyFrame(Duration.millis(REPLAY_STEP), e -> replayStep()));
+        replayTimeline.setCycleCount(Animation.INDEFINITE);
+        replayTimeline.play();
+    }
+
+    /**
+     * Play the next replay action with the same actions as the player
+     */
+    protected void replayStep() {
+        if (replayPosition == replay.size()) {
+            stopReplay();
+            return;
+        }
+        int action = replay.getAction(replayPosition++);
+        int argument = Replay.argument(action);
+        switch (Replay.kind(action)) {
+            case Replay.PLACE:
+                blockClicked(board.getBlock(argument % game.getCols(), argument / game.getCols()));
+                break;
+            case Replay.ROTATE:
+                rotate(argument);
+                break;
+            case Replay.SWAP:
+                swapPiece();
+                break;
+            default:
+                game.expireTimer();
+                break;
+        }
+    }
+
+    /**
+     * Stop playing the replay, leaving the final board on screen
+     */
+    protected void stopReplay() {
+        if (replayTimeline != null) {
+            replayTimeline.stop();
+        }
+    }
+
+    /**
+     * Handles the keys while watching a replay: F toggles fast forward and Escape returns to the menu
+     * @param keyEvent is the keyboard key when is activated
+     */
+    protected void replayKeyPressed(KeyEvent keyEvent) {
+        if (keyEvent.getCode() == KeyCode.F) {
+            replayTimeline.setRate(replayTimeline.getRate() == 1 ? FAST_FORWARD : 1);
+        } else if (keyEvent.getCode() == KeyCode.ESCAPE) {
+            stopReplay();
+            game.gameEnded();
+            stopTimeBar();
+            Multimedia.stopBackgroundMusic();
+            gameWindow.startMenu();
+        }
+    }
+
+    /**
+     * Turn the bot on or off
+     */
+    protected void toggleAutoplay() {
+        autoplay = !autoplay;
+        autoplayRun++;
+        logger.info("Autoplay " + (autoplay ? "on" : "off"));
+        //A search still running from before carries on as this run once it finishes
+        if (autoplay && !searching) {
+            autoplay();
+        }
+    }
+
+    /**
+     * Let the bot search for a move and play it with the same actions as the player, then carry on while the bot is on.
+     * Only one search runs at a time.
+     */
+    protected void autoplay() {
+        if (!autoplay || searching) {
+            return;
+        }
+        searching = true;
+        int run = autoplayRun;
+        AtomicInteger dealt = new AtomicInteger();
+        game.ask(engine -> {
+            dealt.set(engine.getPiecesDealt());
+            return bot.findMoveAsync(engine);
+        }).thenCompose(search -> search).whenComplete((move, error) -> Platform.runLater(() -> {
+            searching = false;
+            if (run != autoplayRun) {
+                //The bot was turned off and on again while searching, so search again for the new run
+                autoplay();
+                return;
+            }
+            if (error != null) {
+                stopAutoplay(error);
+                return;
+            }
+            try {
+                playMove(move, dealt.get());
+            } catch (RuntimeException e) {
+                stopAutoplay(e);
+            }
+        }));
+    }
+
+    /**
+     * Play a move the bot found, then carry on while the bot is on
+     * @param move the move, or null if there was none
+     * @param dealt number of pieces the engine had dealt when the search started
+     */
+    private void playMove(Move move, int dealt) {
+        if (!autoplay) {
+            return;
+        }
+        //Only play the move if the pieces have not changed while searching
+        GamePiece piece = move == null ? null : move.isSwap() ? game.getFollowingPiece() : game.getCurrentPiece();
+        if (piece != null && piece.getType() == move.getType() && game.getPiecesDealt() == dealt) {
+            //The actions are queued, so the rotations are worked out from the piece as it is now
+            if (move.isSwap()) {
+                swapPiece();
+            }
+            int rotations = Bot.rotationsTo(piece, move);
+            if (rotations != 0) {
+                rotate(rotations);
+            }
+            blockClicked(board.getBlock(move.getX(), move.getY()));
+        }
+        int run = autoplayRun;
+        var pause = new PauseTransition(Duration.millis(AUTOPLAY_DELAY));
+        pause.setOnFinished(e -> {
+            if (run == autoplayRun) {
+                autoplay();
+            }
+        });
+        pause.play();
+    }
+
+    /**
+     * Turn the bot off after it failed
+     * @param error what went wrong
+     */
+    private void stopAutoplay(Throwable error) {
+        logger.error("Autoplay stopped", error);
+        autoplay = false;
+        autoplayRun++;
+    }
+
 
 }
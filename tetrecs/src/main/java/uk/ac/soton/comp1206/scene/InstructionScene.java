@@ -3,7 +3,6 @@ package uk.ac.soton.comp1206.scene;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
@@ -16,10 +15,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.component.GameBoard;
 import uk.ac.soton.comp1206.component.PieceBoard;
-import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.utility.Assets;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
 /**
@@ -27,7 +26,7 @@ import uk.ac.soton.comp1206.utility.Multimedia;
  */
 public class InstructionScene extends BaseScene{
 
-    private static final Logger logger = LogManager.getLogger(Game.class);
+    private static final Logger logger = LogManager.getLogger(InstructionScene.class);
     /**
      * Plays the sound effects and background music
      */
@@ -58,6 +57,15 @@ public class InstructionScene extends BaseScene{
         multimedia.playBackgroundMusic("menu.mp3");
 
     }
+
+    /**
+     * The instructions never change, so they are kept and shown again
+     * @return true
+     */
+    @Override
+    public boolean isReusable() {
+        return true;
+    }
     /**
      * Build the layout
      */
@@ -71,6 +79,7 @@ public class InstructionScene extends BaseScene{
         instructionPane.setMaxWidth(gameWindow.getWidth());
         instructionPane.setMaxHeight(gameWindow.getHeight());
         instructionPane.getStyleClass().add("menu-background");
+        instructionPane.setBackground(Assets.background("bg7.jpg"));
         root.getChildren().add(instructionPane);
 
         var mainPane = new BorderPane();
@@ -87,7 +96,7 @@ public class InstructionScene extends BaseScene{
         titleBox.getChildren().add(instructionsLabel);
 
         //Instruction Image
-        var instructionImg= new ImageView(new Image(this.getClass().getResource("/images/Instructions.png").toExternalForm()));
+        var instructionImg= new ImageView(Assets.image("Instructions.png"));
         mainPane.setCenter(instructionImg);
         instructionImg.setPreserveRatio(true);
         instructionImg.setFitWidth(gameWindow.getHeight());
@@ -0,0 +1,65 @@
+package uk.ac.soton.comp1206.scene;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.ui.GamePane;
+import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.utility.Assets;
+
+/**
+ * The splash shown while the assets are preloaded at startup, which moves on to the menu once they are all ready
+ */
+public class LoadingScene extends BaseScene {
+
+    private static final Logger logger = LogManager.getLogger(LoadingScene.class);
+
+    /**
+     * Create the loading scene
+     * @param gameWindow the game window
+     */
+    public LoadingScene(GameWindow gameWindow) {
+        super(gameWindow);
+        logger.info("Creating Loading Scene");
+    }
+
+    /**
+     * Build the splash layout
+     */
+    @Override
+    public void build() {
+        logger.info("Building Loading Scene");
+        root = new GamePane(gameWindow.getWidth(), gameWindow.getHeight());
+
+        var loadingBox = new VBox();
+        loadingBox.setAlignment(Pos.CENTER);
+        loadingBox.setSpacing(20);
+        loadingBox.setMaxWidth(gameWindow.getWidth());
+        loadingBox.setMaxHeight(gameWindow.getHeight());
+        loadingBox.getStyleClass().add("intro");
+        root.getChildren().add(loadingBox);
+
+        var loadingText = new Text("Loading");
+        loadingText.getStyleClass().add("heading");
+
+        var progressBar = new ProgressBar();
+        progressBar.setPrefWidth(gameWindow.getWidth() / 2.0);
+        progressBar.progressProperty().bind(Assets.progressProperty());
+
+        loadingBox.getChildren().addAll(loadingText, progressBar);
+    }
+
+    /**
+     * Start loading the assets at the size of the screen the window is on, and show the menu when they are ready
+     */
+    @Override
+    public void initialise() {
+        double scale = scene.getWindow() == null ? 1 : scene.getWindow().getOutputScaleX();
+        Assets.preload(gameWindow.getWidth(), gameWindow.getHeight(), scale)
+                .thenRun(() -> Platform.runLater(gameWindow::startMenu));
+    }
+}
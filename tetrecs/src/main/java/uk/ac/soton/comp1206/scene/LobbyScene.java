@@ -14,8 +14,11 @@ import javafx.scene.text.Text;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Message;
+import uk.ac.soton.comp1206.network.MessageType;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.utility.Assets;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
 import java.util.Timer;
@@ -140,7 +143,9 @@ public class LobbyScene extends BaseScene{
             }
         },1,2000);
         communicator = gameWindow.getCommunicator();
-        communicator.addListener(message -> Platform.runLater(() -> handleMessage(message)));
+        communicator.addListener(message -> Platform.runLater(() -> handleMessage(message)),
+                MessageType.CHANNELS, MessageType.JOIN, MessageType.MSG, MessageType.USERS, MessageType.START,
+                MessageType.HOST, MessageType.NICK, MessageType.ERROR);
         scene.setOnKeyPressed(keyEvent -> {
             if(keyEvent.getCode()==KeyCode.ESCAPE){
                 Multimedia.stopBackgroundMusic();
@@ -162,6 +167,7 @@ public class LobbyScene extends BaseScene{
         lobbyPane.setMaxWidth(gameWindow.getWidth());
         lobbyPane.setMaxHeight(gameWindow.getHeight());
         lobbyPane.getStyleClass().add("lobby-background");
+        lobbyPane.setBackground(Assets.background("bg5.jpg"));
         root.getChildren().add(lobbyPane);
 
         var mainPane = new BorderPane();
@@ -306,78 +312,80 @@ public class LobbyScene extends BaseScene{
      * Handles messages that are received form the server
      * @param message holds the message
      */
-    protected void handleMessage(String message) {
+    protected void handleMessage(Message message) {
 
-        if(message.startsWith("CHANNELS")){
-            leftBox.getChildren().remove(channelBox);
-            channelBox = new VBox();
-            channelBox.setSpacing(10);
+        switch (message.getType()) {
+            case CHANNELS: {
+                leftBox.getChildren().remove(channelBox);
+                channelBox = new VBox();
+                channelBox.setSpacing(10);
 
-            var channels = message.replace(" ","").replace("CHANNELS","").split("\n");
-            logger.info(channels[0]);
-            for (String channelNames : channels){
-                var channelsButton = new Button(channelNames);
-                channelsButton.getStyleClass().add("buttonName");
+                for (String channelNames : message.getLines()) {
+                    var channelsButton = new Button(channelNames);
+                    channelsButton.getStyleClass().add("buttonName");
 
-                channelsButton.setOnAction(event ->{
-                    logger.info("ButtonClicked");
-                    communicator.send("JOIN " + channelNames);
+                    channelsButton.setOnAction(event ->{
+                        logger.info("ButtonClicked");
+                        communicator.send("JOIN " + channelNames);
 
-                });
-                channelBox.getChildren().add(channelsButton);
+                    });
+                    channelBox.getChildren().add(channelsButton);
+                }
+                leftBox.getChildren().add(channelBox);
+                break;
+            }
+            case JOIN:
+                chatBox.getChildren().clear();
+                channelName.setText("Channels : "+message.getBody());
+                rightBox.setVisible(true);
+                createBox.setVisible(false);
+                break;
+
+            case MSG: {
+                var msg = message.getChat();
+                Text text = new Text(msg.getKey()+" : "+msg.getValue());
+                text.getStyleClass().add("heading");
+                chatBox.getChildren().add(text);
+                scrollPane.setVvalue(1);
+                break;
             }
-            leftBox.getChildren().add(channelBox);
-
-        }else if(message.startsWith("JOIN")){
-            chatBox.getChildren().clear();
-            var joinArr = message.split(" ");
-            channelName.setText("Channels : "+joinArr[1]);
-            rightBox.setVisible(true);
-            createBox.setVisible(false);
-
-
-        }else if (message.startsWith("MSG")){
-            var msg = message.replace("MSG ","").split(":");
-            Text text = new Text(msg[0]+" : "+msg[1]);
-            text.getStyleClass().add("heading");
-            chatBox.getChildren().add(text);
-            scrollPane.setVvalue(1);
-
-
-        }else if(message.startsWith("USERS")){
-            var users = message.replace(" ","").replace("USERS","").split("\n");
-            var userBox = new HBox();
-            userBox.setSpacing(10);
-            for(String user : users){
-                var name = new Text(user);
-                if(user.equals(userName)) {
-                    name.getStyleClass().add("userName");
-                }else{
-                    name.getStyleClass().add("heading");
+            case USERS: {
+                var userBox = new HBox();
+                userBox.setSpacing(10);
+                for(String user : message.getLines()){
+                    var name = new Text(user);
+                    if(user.equals(userName)) {
+                        name.getStyleClass().add("userName");
+                    }else{
+                        name.getStyleClass().add("heading");
+                    }
+                    userBox.getChildren().add(name);
                 }
-                userBox.getChildren().add(name);
+                chatPane.setTop(userBox);
+                break;
             }
-            chatPane.setTop(userBox);
-
-        } else if (message.startsWith("START")) {
-            Multimedia.playSound("transition.wav");
-            gameWindow.loadScene(new MultiplayerScene(gameWindow));
-
-
-        } else if(message.startsWith("HOST")){
-            startGame.setVisible(true);
-
-        }else if(message.startsWith("NICK")){
-            var name =message.replace("NICK ","");
-            userName = name;
-
-        }else if(message.startsWith("ERROR")){
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setContentText(message.replace("ERROR",""));
-            alert.showAndWait();
-
-
+            case START:
+                Multimedia.playSound("transition.wav");
+                gameWindow.loadScene(new MultiplayerScene(gameWindow));
+                break;
+
+            case HOST:
+                startGame.setVisible(true);
+                break;
+
+            case NICK:
+                userName = message.getBody();
+                break;
+
+            case ERROR: {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error");
+                alert.setContentText(message.getBody());
+                alert.showAndWait();
+                break;
+            }
+            default:
+                break;
         }
         scrollPane.setVvalue(1);
 
@@ -15,6 +15,7 @@ import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.App;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.utility.Assets;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
 
@@ -30,6 +31,16 @@ public class MenuScene extends BaseScene {
      */
     protected Multimedia multimedia = new Multimedia();
 
+    /**
+     * Rocks the title back and forth
+     */
+    private RotateTransition rotation;
+
+    /**
+     * The title image
+     */
+    private ImageView imageView;
+
     /**
      * Create a new menu scene
      * @param gameWindow the Game Window this will be displayed in
@@ -52,6 +63,7 @@ public class MenuScene extends BaseScene {
         menuPane.setMaxWidth(gameWindow.getWidth());
         menuPane.setMaxHeight(gameWindow.getHeight());
         menuPane.getStyleClass().add("menu-background");
+        menuPane.setBackground(Assets.background("bg7.jpg"));
 
         root.getChildren().add(menuPane);
 
@@ -60,15 +72,15 @@ public class MenuScene extends BaseScene {
         menuPane.getChildren().add(mainPane);
 
         //Title
-        Image titleImage = new Image(MenuScene.class.getResource("/images/TetrECS.png").toExternalForm());
-        ImageView imageView = new ImageView(titleImage);
+        Image titleImage = Assets.image("TetrECS.png");
+        imageView = new ImageView(titleImage);
         imageView.setPreserveRatio(true);
         mainPane.setCenter(imageView);
         imageView.setFitHeight(150);
 //        imageView.setTranslateY(-10);
         imageView.setRotate(-7);
         // Create a RotateTransition
-        RotateTransition rotation = new RotateTransition(Duration.seconds(1), imageView);
+        rotation = new RotateTransition(Duration.seconds(1), imageView);
         rotation.setToAngle(10);
         rotation.setAutoReverse(true); // Optional: Set to true if you want the animation to reverse after completion
 
@@ -76,9 +88,6 @@ public class MenuScene extends BaseScene {
         rotation.play();
 
 
-        rotation.play();
-
-
         var buttonBox = new VBox();
         buttonBox.setAlignment(Pos.CENTER);
         mainPane.setBottom(buttonBox);
@@ -89,6 +98,9 @@ public class MenuScene extends BaseScene {
         var multiplayerButton = new Button("Multiplayer");
         multiplayerButton.getStyleClass().add("buttonName1");
 
+        var replayButton = new Button("Replay");
+        replayButton.getStyleClass().add("buttonName1");
+
 
         //Instruction Button
         var instructionsButton = new Button("Instruction");
@@ -100,6 +112,7 @@ public class MenuScene extends BaseScene {
         //Make the buttons transparent to the background
         playButton.setBackground(null);
         multiplayerButton.setBackground(null);
+        replayButton.setBackground(null);
         instructionsButton.setBackground(null);
         exitButton.setBackground(null);
 
@@ -114,13 +127,13 @@ public class MenuScene extends BaseScene {
         //Bind the button action to the startMultiplayer method in the menu
         multiplayerButton.setOnAction(this::startMultiplayer);
 
+        //Bind the button action to watch the last game
+        replayButton.setOnAction(event -> gameWindow.startReplay());
+
         //Bind the button action to exit the application
         exitButton.setOnMouseClicked(event ->  App.getInstance().shutdown());
 
-        //Start the background music
-        this.multimedia.playBackgroundMusic("menu.mp3");
-
-        buttonBox.getChildren().addAll(playButton, multiplayerButton,instructionsButton,exitButton);
+        buttonBox.getChildren().addAll(playButton, multiplayerButton, replayButton, instructionsButton,exitButton);
     }
 
     /**
@@ -136,7 +149,35 @@ public class MenuScene extends BaseScene {
      */
     @Override
     public void initialise() {
+        //Start the background music
+        this.multimedia.playBackgroundMusic("menu.mp3");
+    }
+
+    /**
+     * The menu holds no state, so it is kept and shown again
+     * @return true
+     */
+    @Override
+    public boolean isReusable() {
+        return true;
+    }
+
+    /**
+     * Start the title animation again from the beginning
+     */
+    @Override
+    public void reset() {
+        rotation.stop();
+        imageView.setRotate(-7);
+        rotation.play();
+    }
 
+    /**
+     * Stop the title animation while the menu is kept hidden
+     */
+    @Override
+    public void hide() {
+        rotation.stop();
     }
 
     /**
@@ -20,6 +20,8 @@ import uk.ac.soton.comp1206.component.Leaderboard;
 import uk.ac.soton.comp1206.component.PieceBoard;
 import uk.ac.soton.comp1206.game.MultiplayerGame;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Message;
+import uk.ac.soton.comp1206.network.MessageType;
 import uk.ac.soton.comp1206.ui.GameWindow;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
@@ -86,11 +88,16 @@ public class MultiplayerScene extends ChallengeScene {
     @Override
     public void initialise() {
         super.initialise();
-        communicator.addListener(message -> Platform.runLater(() -> handleMessage(message)));
+        //The other players keep going, so a multiplayer game never pauses
+        scene.getWindow().focusedProperty().removeListener(focusListener);
+        communicator.addListener(message -> Platform.runLater(() -> handleMessage(message)),
+                MessageType.SCORES, MessageType.MSG, MessageType.DIE);
         communicator.send("SCORES");
         game.setGameOverListener(game -> {
             communicator.send("DIE");
             game.gameEnded();
+            stopTimeBar();
+            saveReplay();
             gameWindow.startMultiplayerScore(game, true, onlineScores);
         });
 
@@ -177,28 +184,29 @@ public class MultiplayerScene extends ChallengeScene {
      * Handles messages that are received form the server
      * @param message holds the message
      */
-    protected void handleMessage(String message) {
-        if (message.startsWith("SCORES")) {
-            var msg = message.replace("SCORES ", "").split("\n");
-            this.onlineScores.clear();
-            for (String messages : msg) {
-                var data = messages.split(":");
-                this.onlineScores.add(new Pair<>(data[0], Integer.parseInt(data[1])));
+    protected void handleMessage(Message message) {
+        switch (message.getType()) {
+            case SCORES:
+                this.onlineScores.setAll(message.getScores());
+                Collections.sort(onlineScores, (score1, score2) -> score2.getValue().compareTo(score1.getValue()));
+                break;
+            case MSG: {
+                if(count > 2){
+                    chatBox.getChildren().remove(0);
+                }
+                var msg = message.getChat();
+                Text text = new Text(msg.getKey() + " : " + msg.getValue());
+                logger.info(msg.getValue());
+                text.getStyleClass().add("heading1");
+                chatBox.getChildren().add(text);
+                count++;
+                break;
             }
-            Collections.sort(onlineScores, (score1, score2) -> score2.getValue().compareTo(score1.getValue()));
-        } else if (message.startsWith("MSG")) {
-            if(count > 2){
-                chatBox.getChildren().remove(0);
-            }
-            var msg = message.replace("MSG ", "").split(":");
-            Text text = new Text(msg[0] + " : " + msg[1]);
-            logger.info(msg[1]);
-            text.getStyleClass().add("heading1");
-            chatBox.getChildren().add(text);
-            count++;
-        } else if(message.contains("DIE")) {
-            var msg = message.replace("DIE ", "");
-            leaderBoard.userDIE(msg);
+            case DIE:
+                leaderBoard.userDIE(message.getBody());
+                break;
+            default:
+                break;
         }
 
 }
@@ -21,8 +21,11 @@ import uk.ac.soton.comp1206.component.Leaderboard;
 import uk.ac.soton.comp1206.component.ScoreList;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Message;
+import uk.ac.soton.comp1206.network.MessageType;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.utility.Assets;
 import uk.ac.soton.comp1206.utility.Multimedia;
 
 import java.io.*;
@@ -140,11 +143,7 @@ public class ScoresScene extends BaseScene {
     public void initialise() {
         logger.info("Running Score Scene");
         Multimedia.playBackgroundMusic("end.wav");
-        communicator.addListener((message) -> {
-                if (message.startsWith("HISCORES")) {
-                    Platform.runLater(() -> loadOnlineScores(message));}
-
-        });
+        communicator.addListener(message -> Platform.runLater(() -> loadOnlineScores(message)), MessageType.HISCORES);
         communicator.send("HISCORES");
         if(multiplayer){
             multiplayerScores.addAll(onlineScores);
@@ -188,6 +187,7 @@ public class ScoresScene extends BaseScene {
         scorePane.setMaxWidth(gameWindow.getWidth());
         scorePane.setMaxHeight(gameWindow.getHeight());
         scorePane.getStyleClass().add("score-background");
+        scorePane.setBackground(Assets.background("bg3.jpg"));
         root.getChildren().add(scorePane);
 
         var mainPane = new BorderPane();
@@ -356,20 +356,13 @@ public class ScoresScene extends BaseScene {
      * Handles top 10 highest scorer and update it into the remote score list
      * @param message contains all the first 10 highest scorer when HISOCRES is received
      */
-    protected void loadOnlineScores(String message) {
+    protected void loadOnlineScores(Message message) {
         logger.info("Receive Online Scores : " + message);
-        message = message.replace("HISCORES", "");
-        var scores = message.split("\n");
-        for (String score : scores) {
-            var parts = score.split(":");
-            if (parts.length < 2) continue;
-            var name = parts[0];
-            var onlineScores = parts[1];
-            remoteScores.add(new Pair<>(name, Integer.parseInt(onlineScores)));
-            Collections.sort(remoteScores, (score1, score2) -> score2.getValue().compareTo(score1.getValue()));
-            logger.info("Received score: {} = {}", name, onlineScores);
-
-            }
+        for (var score : message.getScores()) {
+            remoteScores.add(score);
+            logger.info("Received score: {} = {}", score.getKey(), score.getValue());
+        }
+        Collections.sort(remoteScores, (score1, score2) -> score2.getValue().compareTo(score1.getValue()));
         if(game.getScoreProperty().get()>remoteScores.get(9).getValue()){
             writeOnlineSocres();
         }
@@ -17,6 +17,11 @@ import org.apache.logging.log4j.Logger;
  * It uses the width and height given which should match the main window size. This will be the base drawing resolution,
  * but will be scaled up or down as the window is resized.
  *
+ * The transforms are created once and only updated when the size of the pane actually changes, so ordinary layout
+ * passes leave the transforms of the scene graph alone. Scaling up can optionally be snapped to whole numbers, so that
+ * canvases and cached sprites are drawn at an exact multiple of their size rather than resampled. This is turned on by
+ * setIntegerScaling or the system property tetrecs.integerScale.
+ *
  * You should not need to modify this class
  */
 public class GamePane extends StackPane {
@@ -28,6 +33,26 @@ public class GamePane extends StackPane {
     private double scalar = 1;
     private final boolean autoScale = true;
 
+    /**
+     * Whether to snap scaling up to whole numbers
+     */
+    private boolean integerScaling = Boolean.getBoolean("tetrecs.integerScale");
+
+    /**
+     * Scales the content, reused on every layout
+     */
+    private final Scale scale = new Scale(1, 1, 0, 0);
+
+    /**
+     * Centres the content, reused on every layout
+     */
+    private final Translate translate = new Translate();
+
+    /**
+     * Size the transforms were last worked out for, or -1 if they have not been yet
+     */
+    private double laidOutWidth = -1, laidOutHeight = -1;
+
     /**
      * Create a new scalable GamePane with the given drawing width and height.
      * @param width width
@@ -40,6 +65,17 @@ public class GamePane extends StackPane {
 
         getStyleClass().add("gamepane");
         setAlignment(Pos.TOP_LEFT);
+        getTransforms().setAll(translate, scale);
+    }
+
+    /**
+     * Set whether scaling up is snapped to whole numbers
+     * @param integerScaling whether to snap
+     */
+    public void setIntegerScaling(boolean integerScaling) {
+        this.integerScaling = integerScaling;
+        laidOutWidth = -1;
+        requestLayout();
     }
 
     /**
@@ -62,6 +98,15 @@ public class GamePane extends StackPane {
             return;
         }
 
+        //Nothing to do unless the size has changed
+        var parentWidth = getWidth();
+        var parentHeight = getHeight();
+        if (parentWidth == laidOutWidth && parentHeight == laidOutHeight) {
+            return;
+        }
+        laidOutWidth = parentWidth;
+        laidOutHeight = parentHeight;
+
         //Work out the scale factor height and width
         var scaleFactorHeight = getHeight() / height;
         var scaleFactorWidth = getWidth() / width;
@@ -73,22 +118,25 @@ public class GamePane extends StackPane {
             setScalar(scaleFactorHeight);
         }
 
-        //Set up the scale
-        Scale scale = new Scale(scalar,scalar);
-
-        //Get the parent width and height
-        var parentWidth = getWidth();
-        var parentHeight = getHeight();
+        //Snap to a whole number when scaling up, so nothing is resampled
+        if (integerScaling && scalar >= 1) {
+            setScalar(Math.floor(scalar));
+        }
 
         //Get the padding needed on the top and left
         var paddingLeft = (parentWidth - (width * scalar)) / 2.0;
         var paddingTop = (parentHeight - (height * scalar)) / 2.0;
+        if (integerScaling) {
+            paddingLeft = Math.floor(paddingLeft);
+            paddingTop = Math.floor(paddingTop);
+        }
 
-        //Perform the transformation
-        Translate translate = new Translate(paddingLeft, paddingTop);
-        scale.setPivotX(0);
-        scale.setPivotY(0);
-        getTransforms().setAll(translate, scale);
+        //Update the transformation
+        logger.debug("Scaling to {} for {} x {}", scalar, parentWidth, parentHeight);
+        scale.setX(scalar);
+        scale.setY(scalar);
+        translate.setX(paddingLeft);
+        translate.setY(paddingTop);
     }
 
 }
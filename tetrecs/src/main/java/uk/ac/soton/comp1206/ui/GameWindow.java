@@ -1,19 +1,29 @@
 package uk.ac.soton.comp1206.ui;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleListProperty;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.App;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Transport;
+import uk.ac.soton.comp1206.replay.Replay;
 import uk.ac.soton.comp1206.scene.*;
+import uk.ac.soton.comp1206.utility.Multimedia;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * The GameWindow is the single window for the game where everything takes place. To move between screens in the game,
@@ -21,6 +31,10 @@ import uk.ac.soton.comp1206.scene.*;
  *
  * The GameWindow has methods to launch each of the different parts of the game by switching scenes. You can add more
  * methods here to add more screens to the game.
+ *
+ * Scenes which hold no state, like the menu and the instructions, are built once and kept, and shown again each time
+ * they are needed. Once a scene is showing, the scenes most likely to come next are built ahead of time while the
+ * player is looking at it, so that moving on only has to swap the scene over.
  */
 public class GameWindow {
 
@@ -36,6 +50,23 @@ public class GameWindow {
 
     final Communicator communicator;
 
+    /**
+     * Address of the TetrECS server, used unless the tetrecs.server system property names another. Setting it to
+     * loopback plays against the in process server instead.
+     */
+    public static final String SERVER = "ws://ofb-labs.soton.ac.uk:9700";
+
+    /**
+     * How long a scene has been showing before the next scenes are built
+     */
+    private static final Duration PRELOAD_DELAY = Duration.millis(500);
+
+    /**
+     * Scenes which have been built and are waiting to be shown, by class. Reusable scenes stay here once shown, other
+     * scenes are taken out when they are shown.
+     */
+    private final Map<Class<? extends BaseScene>, BaseScene> scenes = new HashMap<>();
+
     /**
      * Create a new GameWindow attached to the given stage with the specified width and height
      * @param stage stage
@@ -51,42 +82,72 @@ public class GameWindow {
         //Setup window
         setupStage();
 
-        //Setup resources
-        setupResources();
-
         //Setup default scene
         setupDefaultScene();
 
         //Setup communicator
-        communicator = new Communicator("ws://ofb-labs.soton.ac.uk:9700");
+        communicator = openCommunicator(System.getProperty("tetrecs.server", SERVER));
 
-        //Go to menu
-        startMenu();
+        //Load the assets, then go to the menu
+        loadScene(new LoadingScene(this));
     }
 
     /**
-     * Setup the font and any other resources we need
+     * Connect to the server, falling back to the in process server if it cannot be reached
+     * @param server address of the server, or Transport.LOOPBACK
+     * @return the connected communicator
      */
-    private void setupResources() {
-        logger.info("Loading resources");
-
-        //We need to load fonts here due to the Font loader bug with spaces in URLs in the CSS files
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Regular.ttf"),32);
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Bold.ttf"),32);
-        Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-ExtraBold.ttf"),32);
+    private Communicator openCommunicator(String server) {
+        var communicator = new Communicator(server);
+        try {
+            communicator.connect();
+            return communicator;
+        } catch (IOException e) {
+            logger.error("Unable to connect to {}", server, e);
+            Alert error = new Alert(Alert.AlertType.ERROR, "Unable to communicate with the TetrECS server\n\n" + e.getMessage()
+                    + "\n\nPlease ensure you are connected to the VPN. Multiplayer will use an offline server until the game is restarted.");
+            error.showAndWait();
+        }
+
+        var offline = new Communicator(Transport.LOOPBACK);
+        try {
+            offline.connect();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start the offline server", e);
+        }
+        return offline;
     }
 
     /**
      * Display the main menu
      */
     public void startMenu() {
-        loadScene(new MenuScene(this));
+        loadScene(take(MenuScene.class, () -> new MenuScene(this)));
+        preload(InstructionScene.class, () -> new InstructionScene(this));
+        preload(ChallengeScene.class, () -> new ChallengeScene(this));
     }
 
     /**
      * Display the single player challenge
      */
-    public void startChallenge() { loadScene(new ChallengeScene(this)); }
+    public void startChallenge() { loadScene(take(ChallengeScene.class, () -> new ChallengeScene(this))); }
+
+    /**
+     * Watch the replay of the most recent game, if there is one
+     */
+    public void startReplay() {
+        try {
+            Replay replay = Replay.loadLatest();
+            if (replay == null) {
+                logger.info("No replays to watch");
+                return;
+            }
+            Multimedia.stopBackgroundMusic();
+            loadScene(new ChallengeScene(this, replay));
+        } catch (IOException e) {
+            logger.error("Unable to load replay", e);
+        }
+    }
 
     /**
      * Display the score scene
@@ -94,6 +155,7 @@ public class GameWindow {
      */
     public void startScore(Game game) {
             loadScene(new ScoresScene(this,game,false));
+            preload(MenuScene.class, () -> new MenuScene(this));
          }
 
     /**
@@ -129,21 +191,72 @@ public class GameWindow {
         //Cleanup remains of the previous scene
         cleanup();
 
-        //Create the new scene and set it up
-        newScene.build();
+        //Create the new scene and set it up, unless it was built earlier
+        if (newScene.isBuilt()) {
+            logger.info("Reusing {}", newScene.getClass().getSimpleName());
+            newScene.reset();
+        } else {
+            newScene.build();
+        }
         currentScene = newScene;
         scene = newScene.setScene();
         stage.setScene(scene);
+        if (newScene.isReusable()) {
+            scenes.put(newScene.getClass(), newScene);
+        }
 
         //Initialise the scene when ready
         Platform.runLater(() -> currentScene.initialise());
     }
 
+    /**
+     * Get a scene which has already been built, or create a new one
+     * @param type class of the scene
+     * @param factory creates the scene if none is waiting
+     * @param <T> type of the scene
+     * @return the scene
+     */
+    private <T extends BaseScene> T take(Class<T> type, Supplier<T> factory) {
+        BaseScene waiting = scenes.get(type);
+        if (waiting == null) {
+            return factory.get();
+        }
+        if (!waiting.isReusable()) {
+            scenes.remove(type);
+        }
+        return type.cast(waiting);
+    }
+
+    /**
+     * Build a scene ahead of time, once the current scene has been showing for a moment, so that it is ready when it is
+     * needed. Nothing is done if one is already waiting.
+     * @param type class of the scene
+     * @param factory creates the scene
+     * @param <T> type of the scene
+     */
+    private <T extends BaseScene> void preload(Class<T> type, Supplier<T> factory) {
+        if (scenes.containsKey(type)) {
+            return;
+        }
+        var delay = new PauseTransition(PRELOAD_DELAY);
+        delay.setOnFinished(event -> {
+            if (scenes.containsKey(type)) {
+                return;
+            }
+            logger.info("Preloading {}", type.getSimpleName());
+            T preloaded = factory.get();
+            preloaded.build();
+            preloaded.setScene();
+            scenes.put(type, preloaded);
+        });
+        delay.play();
+    }
+
     /**
      * Start Instruction scene
      */
     public void startInstructions() {
-        loadScene(new InstructionScene(this));
+        loadScene(take(InstructionScene.class, () -> new InstructionScene(this)));
     }
 
     /**
@@ -160,6 +273,9 @@ public class GameWindow {
     public void cleanup() {
         logger.info("Clearing up previous scene");
         communicator.clearListeners();
+        if (currentScene != null) {
+            currentScene.hide();
+        }
     }
 
     /**
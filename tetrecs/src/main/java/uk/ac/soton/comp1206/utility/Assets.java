@@ -0,0 +1,281 @@
+package uk.ac.soton.comp1206.utility;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundImage;
+import javafx.scene.layout.BackgroundPosition;
+import javafx.scene.layout.BackgroundRepeat;
+import javafx.scene.layout.BackgroundSize;
+import javafx.scene.media.AudioClip;
+import javafx.scene.media.Media;
+import javafx.scene.text.Font;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assets loads every image, sound, track and font the game uses, and hands each out as a single shared instance.
+ *
+ * At startup preload decodes all of them at once on a pool of worker threads, reporting its progress so that a splash
+ * can be shown meanwhile, and nothing is decoded for the first time in the middle of a game. Backgrounds are decoded to
+ * the size they are drawn at on the screen rather than their full size, and handed out as ready made Backgrounds which
+ * cover the pane they are set on. Anything asked for before it has been preloaded is loaded there and then and cached.
+ */
+public class Assets {
+
+    private static final Logger logger = LogManager.getLogger(Assets.class);
+
+    /**
+     * Images drawn as backgrounds covering the whole window
+     */
+    public static final List<String> BACKGROUNDS = List.of(
+            "bg3.jpg", "bg4.jpg", "bg5.jpg", "bg7.jpg", "challengebg.jpeg", "game_background.jpg");
+
+    /**
+     * Other images, drawn within the window
+     */
+    public static final List<String> IMAGES = List.of("TetrECS.png", "Instructions.png");
+
+    /**
+     * Sound effects
+     */
+    public static final List<String> SOUNDS = List.of(
+            "clear.wav", "explode.wav", "fail.wav", "intro.mp3", "level.wav", "lifegain.wav", "lifelose.wav",
+            "message.wav", "place.wav", "pling.wav", "rotate.wav", "transition.wav");
+
+    /**
+     * Background music tracks
+     */
+    public static final List<String> MUSIC = List.of("menu.mp3", "end.wav");
+
+    /**
+     * Fonts used by the stylesheet
+     */
+    public static final List<String> FONTS = List.of("Orbitron-Regular.ttf", "Orbitron-Bold.ttf", "Orbitron-ExtraBold.ttf");
+
+    /**
+     * Decoded images, by name
+     */
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+
+    /**
+     * Backgrounds made from the decoded images, by name
+     */
+    private static final Map<String, Background> backgrounds = new ConcurrentHashMap<>();
+
+    /**
+     * Decoded sound effects, by name
+     */
+    private static final Map<String, AudioClip> sounds = new ConcurrentHashMap<>();
+
+    /**
+     * Music tracks, by name. Tracks which do not exist are cached as empty.
+     */
+    private static final Map<String, Optional<Media>> music = new ConcurrentHashMap<>();
+
+    /**
+     * Fraction of the assets loaded so far, only changed on the JavaFX thread
+     */
+    private static final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0);
+
+    /**
+     * The preload, once started
+     */
+    private static CompletableFuture<Void> preloading;
+
+    /**
+     * Size backgrounds are decoded to, in pixels
+     */
+    private static volatile double displayWidth, displayHeight;
+
+    /**
+     * Load and decode every asset in parallel. Only the first call starts loading, later calls return the same future.
+     * @param width width of the window
+     * @param height height of the window
+     * @param scale output scale of the screen
+     * @return completes once everything has been loaded
+     */
+    public static synchronized CompletableFuture<Void> preload(double width, double height, double scale) {
+        if (preloading != null) {
+            return preloading;
+        }
+        displayWidth = width * scale;
+        displayHeight = height * scale;
+
+        List<Runnable> loads = new ArrayList<>();
+        FONTS.forEach(name -> loads.add(() -> loadFont(name)));
+        BACKGROUNDS.forEach(name -> loads.add(() -> background(name)));
+        IMAGES.forEach(name -> loads.add(() -> image(name)));
+        SOUNDS.forEach(name -> loads.add(() -> Multimedia.loadSound(name)));
+        MUSIC.forEach(name -> loads.add(() -> Multimedia.loadMusic(name)));
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Asset loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Preloading {} assets on {} threads", loads.size(), threads);
+
+        long start = System.nanoTime();
+        AtomicInteger done = new AtomicInteger();
+        CompletableFuture<?>[] futures = loads.stream()
+                .map(load -> CompletableFuture.runAsync(load, workers).whenComplete((result, error) -> {
+                    if (error != null) {
+                        logger.error("Unable to load asset", error);
+                    }
+                    double fraction = (double) done.incrementAndGet() / loads.size();
+                    Platform.runLater(() -> progress.set(Math.max(progress.get(), fraction)));
+                }))
+                .toArray(CompletableFuture[]::new);
+
+        preloading = CompletableFuture.allOf(futures)
+                .handle((result, error) -> null)
+                .thenRun(() -> {
+                    workers.shutdown();
+                    logger.info("Preloaded assets in {}ms", (System.nanoTime() - start) / 1_000_000);
+                });
+        return preloading;
+    }
+
+    /**
+     * Get the fraction of the assets preloaded so far
+     * @return progress, from 0 to 1
+     */
+    public static ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    /**
+     * Get an image from /images, decoded to fit within the window
+     * @param name file name
+     * @return the shared image
+     */
+    public static Image image(String name) {
+        return images.computeIfAbsent(name, key -> decode(key, false));
+    }
+
+    /**
+     * Get a background from /images which covers the pane it is set on, decoded to cover the window
+     * @param name file name
+     * @return the shared background
+     */
+    public static Background background(String name) {
+        return backgrounds.computeIfAbsent(name, key -> {
+            Image image = images.computeIfAbsent(key, file -> decode(file, true));
+            var size = new BackgroundSize(1, 1, true, true, false, true);
+            return new Background(new BackgroundImage(image, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT,
+                    BackgroundPosition.DEFAULT, size));
+        });
+    }
+
+    /**
+     * Get a sound effect from /sounds, decoded into memory. This is the first voice of the effect in the sound pool.
+     * @param name file name
+     * @return the shared clip
+     */
+    public static AudioClip sound(String name) {
+        return sounds.computeIfAbsent(name, key -> new AudioClip(resource("/sounds/" + key).toExternalForm()));
+    }
+
+    /**
+     * Get a music track from /music
+     * @param name file name
+     * @return the shared media, or null if there is no such track
+     */
+    public static Media music(String name) {
+        return music.computeIfAbsent(name, key -> {
+            URL url = Assets.class.getResource("/music/" + key);
+            if (url == null) {
+                logger.warn("No music track {}", key);
+                return Optional.empty();
+            }
+            return Optional.of(new Media(url.toExternalForm()));
+        }).orElse(null);
+    }
+
+    /**
+     * Register a font from /style, so the stylesheet can use it
+     * @param name file name
+     */
+    private static void loadFont(String name) {
+        try (InputStream stream = resource("/style/" + name).openStream()) {
+            Font.loadFont(stream, 32);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load font " + name, e);
+        }
+    }
+
+    /**
+     * Decode an image from /images at the size it will be shown at. Before a preload sets the display size, images
+     * are decoded at their full size.
+     * @param name file name
+     * @param cover whether to cover the window, rather than fit within it
+     * @return the decoded image
+     */
+    private static Image decode(String name, boolean cover) {
+        double width = displayWidth, height = displayHeight;
+        if (width <= 0 || height <= 0) {
+            return open(name, 0, 0);
+        }
+        if (!cover) {
+            Image image = open(name, width, height);
+            logger.debug("Decoded {} at {} x {}", name, image.getWidth(), image.getHeight());
+            return image;
+        }
+        //Decode to the window height, and again to the width if that leaves it too narrow to cover
+        Image image = open(name, 0, height);
+        if (image.getWidth() < width) {
+            image = open(name, width, 0);
+        }
+        logger.debug("Decoded {} at {} x {}", name, image.getWidth(), image.getHeight());
+        return image;
+    }
+
+    /**
+     * Decode an image, keeping its aspect ratio
+     * @param name file name
+     * @param width width to fit within, or 0 for any
+     * @param height height to fit within, or 0 for any
+     * @return the decoded image
+     */
+    private static Image open(String name, double width, double height) {
+        try (InputStream stream = resource("/images/" + name).openStream()) {
+            Image image = new Image(stream, width, height, true, true);
+            if (image.isError()) {
+                throw new IllegalStateException("Unable to decode image " + name, image.getException());
+            }
+            return image;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load image " + name, e);
+        }
+    }
+
+    /**
+     * Find a resource which must exist
+     * @param path resource path
+     * @return its URL
+     */
+    private static URL resource(String path) {
+        URL url = Assets.class.getResource(path);
+        if (url == null) {
+            throw new IllegalStateException("Missing resource " + path);
+        }
+        return url;
+    }
+}
@@ -1,12 +1,8 @@
 package uk.ac.soton.comp1206.utility;
 
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Objects;
-
 /**
  * Create class that allowed to play or stop the music
  */
@@ -14,61 +10,55 @@ public class Multimedia {
     private static final Logger logger = LogManager.getLogger(Multimedia.class);
 
     /**
-     * back
+     * Plays the background music
      */
-    private static MediaPlayer mediaPlayer;
+    private static final MusicManager music = new MusicManager();
 
     /**
-     * background
+     * Plays the sound effects. The polyphony limit and stealing policy can be set with the system properties
+     * tetrecs.voices and tetrecs.voiceStealing.
      */
-    private static MediaPlayer backgroundPlayer;
+    private static final SoundPool sounds = new SoundPool(Integer.getInteger("tetrecs.voices", 4),
+            SoundPool.Stealing.valueOf(System.getProperty("tetrecs.voiceStealing", "OLDEST")));
 
 
     /**
-     * Plays the background Music
+     * Plays the background Music, fading over from whatever was playing. Does nothing if the track does not exist.
      * @param music music file to be played
      */
     public static void playBackgroundMusic(String music){
-        String toPlay = Multimedia.class.getResource("/music/" + music).toExternalForm();
-        try{
-            Media play = new Media(toPlay);
-            backgroundPlayer = new MediaPlayer(play);
-            backgroundPlayer.setAutoPlay(true);
-            //loop
-            backgroundPlayer.setCycleCount(MediaPlayer.INDEFINITE);
-            backgroundPlayer.play();
-            logger.info("Playing Media Sound: " + music);
-
-
-
-        }catch (Exception e){
-            e.printStackTrace();
-            logger.info(e.toString());
-        }
-
+        Multimedia.music.play(music);
+    }
 
+    /**
+     * Load a background music track ahead of time
+     * @param music music file
+     */
+    public static void loadMusic(String music) {
+        Multimedia.music.prepare(music);
     }
+
     /**
      * plays the sounds effect
      * @param sound store the music
      */
     public static void playSound(String sound) {
-        String toPlay = Multimedia.class.getResource("/sounds/" + sound).toExternalForm();
-            try {
-                Media play = new Media(toPlay);
-                mediaPlayer = new MediaPlayer(play);
-                mediaPlayer.play();
-                logger.info("Playing Media Sound: " + sound);
-            } catch (Exception e) {
-                e.printStackTrace();
-                logger.info(e.toString());
-            }
-        }
+        sounds.play(sound);
+    }
+
+    /**
+     * Decode the voices of a sound effect ahead of time
+     * @param sound sound effect file
+     */
+    public static void loadSound(String sound) {
+        sounds.load(sound);
+    }
+
     /**
-     * Stop background music
+     * Stop background music, fading it out. Does nothing if no music is playing.
      */
     public static void stopBackgroundMusic() {
-        backgroundPlayer.stop();
+        music.stop();
     }
 
 
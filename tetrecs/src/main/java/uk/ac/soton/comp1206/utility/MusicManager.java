@@ -0,0 +1,138 @@
+package uk.ac.soton.comp1206.utility;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The MusicManager plays the background music, keeping one long lived player for each track.
+ *
+ * A track's player is created when the track is prepared, normally while the assets are preloaded, and starts reading
+ * the track in the background straight away, so it is ready to play by the time a scene asks for it. Switching tracks
+ * crossfades from the old one to the new one on a timeline rather than waiting for either, and asking for the track
+ * which is already playing leaves it playing. Tracks which do not exist are remembered by Assets and quietly ignored.
+ */
+public class MusicManager {
+
+    private static final Logger logger = LogManager.getLogger(MusicManager.class);
+
+    /**
+     * Time taken to fade from one track to the next
+     */
+    public static final Duration CROSSFADE = Duration.millis(800);
+
+    /**
+     * One player per track, by name
+     */
+    private final Map<String, MediaPlayer> players = new ConcurrentHashMap<>();
+
+    /**
+     * The track playing or fading in, or null if none is
+     */
+    private MediaPlayer current;
+
+    /**
+     * The fade in progress, or null if none is
+     */
+    private Timeline fade;
+
+    /**
+     * Create the player for a track, so that it is loaded before it is needed
+     * @param track file name in /music
+     */
+    public void prepare(String track) {
+        player(track);
+    }
+
+    /**
+     * Fade over to a track from whatever is playing, looping it until something else is played. Nothing changes if
+     * the track is already playing or does not exist.
+     * @param track file name in /music
+     */
+    public void play(String track) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> play(track));
+            return;
+        }
+        MediaPlayer next = player(track);
+        if (next == null || next == current) {
+            return;
+        }
+        logger.info("Playing music {}", track);
+        //A track still fading out is faded back in from where it is, anything else starts from the beginning
+        if (next.getStatus() != MediaPlayer.Status.PLAYING) {
+            next.stop();
+            next.setVolume(0);
+            next.play();
+        }
+        fadeTo(next);
+    }
+
+    /**
+     * Fade out whatever is playing. Does nothing if no music is playing.
+     */
+    public void stop() {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(this::stop);
+            return;
+        }
+        if (current == null) {
+            return;
+        }
+        logger.info("Stopping music");
+        fadeTo(null);
+    }
+
+    /**
+     * Fade every player out except the one given, which is faded in. Players which have faded out are stopped.
+     * @param next player to fade in, or null to fade everything out
+     */
+    private void fadeTo(MediaPlayer next) {
+        if (fade != null) {
+            fade.stop();
+        }
+        current = next;
+
+        var end = new KeyFrame(CROSSFADE, players.values().stream()
+                .filter(player -> player == next || player.getStatus() == MediaPlayer.Status.PLAYING)
+                .map(player -> new KeyValue(player.volumeProperty(), player == next ? 1 : 0))
+                .toArray(KeyValue[]::new));
+        fade = new Timeline(end);
+        fade.setOnFinished(event -> {
+            for (MediaPlayer player : players.values()) {
+                if (player != current) {
+                    player.stop();
+                }
+            }
+            fade = null;
+        });
+        fade.play();
+    }
+
+    /**
+     * Get the player for a track, creating it if needed
+     * @param track file name in /music
+     * @return the player, or null if there is no such track
+     */
+    private MediaPlayer player(String track) {
+        Media media = Assets.music(track);
+        if (media == null) {
+            return null;
+        }
+        return players.computeIfAbsent(track, key -> {
+            MediaPlayer player = new MediaPlayer(media);
+            player.setCycleCount(MediaPlayer.INDEFINITE);
+            player.setOnError(() -> logger.error("Unable to play music {}", key, player.getError()));
+            return player;
+        });
+    }
+}
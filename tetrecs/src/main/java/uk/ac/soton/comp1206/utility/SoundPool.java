@@ -0,0 +1,177 @@
+package uk.ac.soton.comp1206.utility;
+
+import javafx.scene.media.AudioClip;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SoundPool plays sound effects from clips which are decoded into memory once and kept.
+ *
+ * Each effect has its own fixed set of voices, one clip per voice, so the same effect can overlap itself up to the
+ * polyphony limit. Playing an effect picks a voice which has finished, and when every voice is busy the stealing policy
+ * decides whether the oldest voice is cut off and reused or the new sound is dropped. Starting a clip only hands it to
+ * the audio thread, so playing never waits on decoding and can be called from any thread.
+ */
+public class SoundPool {
+
+    private static final Logger logger = LogManager.getLogger(SoundPool.class);
+
+    /**
+     * What to do when every voice of an effect is busy
+     */
+    public enum Stealing {
+        /**
+         * Cut off the voice which started longest ago and reuse it
+         */
+        OLDEST,
+        /**
+         * Drop the new sound
+         */
+        NONE
+    }
+
+    /**
+     * The voices of one effect
+     */
+    private static class Effect {
+
+        /**
+         * One clip per voice
+         */
+        private final AudioClip[] clips;
+
+        /**
+         * Time each voice was last started, in nanoseconds
+         */
+        private final long[] started;
+
+        /**
+         * Create the voices of an effect
+         * @param clips one clip per voice
+         */
+        private Effect(AudioClip[] clips) {
+            this.clips = clips;
+            this.started = new long[clips.length];
+        }
+    }
+
+    /**
+     * Most voices of one effect playing at once
+     */
+    private final int polyphony;
+
+    /**
+     * What to do when every voice is busy
+     */
+    private final Stealing stealing;
+
+    /**
+     * Loaded effects, by name
+     */
+    private final Map<String, Effect> effects = new ConcurrentHashMap<>();
+
+    /**
+     * Create a sound pool
+     * @param polyphony most voices of one effect playing at once
+     * @param stealing what to do when every voice is busy
+     */
+    public SoundPool(int polyphony, Stealing stealing) {
+        if (polyphony < 1) {
+            throw new IllegalArgumentException("Polyphony must be at least 1, was " + polyphony);
+        }
+        this.polyphony = polyphony;
+        this.stealing = stealing;
+    }
+
+    /**
+     * Decode the voices of an effect, if they have not been already
+     * @param name file name in /sounds
+     */
+    public void load(String name) {
+        effect(name);
+    }
+
+    /**
+     * Play an effect, loading it first if it has not been loaded
+     * @param name file name in /sounds
+     * @return whether the effect was played, false if it was dropped because every voice was busy
+     */
+    public boolean play(String name) {
+        Effect effect = effect(name);
+        synchronized (effect) {
+            int voice = -1;
+            for (int i = 0; i < effect.clips.length; i++) {
+                if (!effect.clips[i].isPlaying()) {
+                    voice = i;
+                    break;
+                }
+            }
+            if (voice < 0) {
+                if (stealing == Stealing.NONE) {
+                    logger.debug("Dropped {}, all {} voices busy", name, polyphony);
+                    return false;
+                }
+                voice = 0;
+                for (int i = 1; i < effect.started.length; i++) {
+                    if (effect.started[i] < effect.started[voice]) {
+                        voice = i;
+                    }
+                }
+                logger.debug("Stealing voice {} of {}", voice, name);
+                effect.clips[voice].stop();
+            }
+            effect.started[voice] = System.nanoTime();
+            effect.clips[voice].play();
+            return true;
+        }
+    }
+
+    /**
+     * Stop every voice of every effect
+     */
+    public void stopAll() {
+        for (Effect effect : effects.values()) {
+            synchronized (effect) {
+                for (AudioClip clip : effect.clips) {
+                    clip.stop();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the polyphony limit
+     * @return most voices of one effect playing at once
+     */
+    public int getPolyphony() {
+        return polyphony;
+    }
+
+    /**
+     * Get the stealing policy
+     * @return what happens when every voice is busy
+     */
+    public Stealing getStealing() {
+        return stealing;
+    }
+
+    /**
+     * Get the voices of an effect, decoding them if needed. The first voice is the shared clip from Assets.
+     * @param name file name in /sounds
+     * @return the effect
+     */
+    private Effect effect(String name) {
+        return effects.computeIfAbsent(name, key -> {
+            AudioClip[] clips = new AudioClip[polyphony];
+            clips[0] = Assets.sound(key);
+            for (int i = 1; i < polyphony; i++) {
+                clips[i] = new AudioClip(clips[0].getSource());
+            }
+            logger.debug("Loaded {} voices of {}", polyphony, key);
+            return new Effect(clips);
+        });
+    }
+}
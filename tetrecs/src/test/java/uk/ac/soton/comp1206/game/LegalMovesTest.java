@@ -0,0 +1,168 @@
+package uk.ac.soton.comp1206.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests that the shifted row masks of Grid.findLegalMoves agree with checking every placement one block at a time, and
+ * that LegalMoves.count counts each way of covering the grid once
+ */
+class LegalMovesTest {
+
+    /**
+     * Fill a grid at random
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param fill chance of each block being filled
+     * @param seed seed for the blocks
+     * @return the grid
+     */
+    private static Grid board(int cols, int rows, double fill, long seed) {
+        Grid grid = new Grid(cols, rows);
+        Random random = new Random(seed);
+        for (int x = 0; x < cols; x++) {
+            for (int y = 0; y < rows; y++) {
+                if (random.nextDouble() < fill) {
+                    grid.set(x, y, 1 + random.nextInt(GamePiece.PIECES));
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Check a placement by looking at every block of the 3x3 makeup, without any of the masks
+     * @param grid the grid
+     * @param type piece type
+     * @param rotation rotation
+     * @param x column of the centre
+     * @param y row of the centre
+     * @return whether the piece fits
+     */
+    private static boolean fits(Grid grid, int type, int rotation, int x, int y) {
+        int[][] blocks = PieceTable.blocks(type, rotation);
+        for (int bx = 0; bx < 3; bx++) {
+            for (int by = 0; by < 3; by++) {
+                if (blocks[bx][by] == 0) continue;
+                int gx = x + bx - 1, gy = y + by - 1;
+                if (gx < 0 || gx >= grid.getCols() || gy < 0 || gy >= grid.getRows() || grid.get(gx, gy) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the blocks a placement covers
+     * @param type piece type
+     * @param rotation rotation
+     * @param x column of the centre
+     * @param y row of the centre
+     * @return the covered blocks, as y * 64 + x
+     */
+    private static Set<Integer> covered(int type, int rotation, int x, int y) {
+        Set<Integer> blocks = new HashSet<>();
+        int[] offsets = PieceTable.offsets(type, rotation);
+        for (int i = 0; i < offsets.length; i += 2) {
+            blocks.add((y + offsets[i + 1]) * Long.SIZE + x + offsets[i]);
+        }
+        return blocks;
+    }
+
+    /**
+     * Compare the generated moves of every piece against a scan of every centre, including centres just outside
+     * the grid
+     * @param grid the grid
+     */
+    private static void compare(Grid grid) {
+        LegalMoves moves = new LegalMoves();
+        for (int type = 0; type < GamePiece.PIECES; type++) {
+            boolean any = grid.findLegalMoves(type, moves);
+            assertEquals(type, moves.getType());
+            boolean found = false;
+            Set<Set<Integer>> coverings = new HashSet<>();
+            for (int rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+                GamePiece piece = GamePiece.createPiece(type, rotation);
+                int count = 0;
+                for (int y = -1; y <= grid.getRows(); y++) {
+                    for (int x = -1; x <= grid.getCols(); x++) {
+                        boolean legal = fits(grid, type, rotation, x, y);
+                        String where = PieceTable.name(type) + " rotation " + rotation + " at " + x + "," + y;
+                        assertEquals(legal, grid.canPlayPiece(piece, x, y), where);
+                        assertEquals(legal, moves.isLegal(rotation, x, y), where);
+                        if (legal) {
+                            count++;
+                            coverings.add(covered(type, rotation, x, y));
+                        }
+                    }
+                }
+                assertEquals(count, moves.count(rotation), PieceTable.name(type) + " rotation " + rotation);
+                assertEquals(count > 0, moves.any(rotation));
+                found |= count > 0;
+            }
+            assertEquals(found, any, PieceTable.name(type));
+            assertEquals(found, moves.any(), PieceTable.name(type));
+            assertEquals(coverings.size(), moves.count(), PieceTable.name(type));
+        }
+    }
+
+    @Test
+    void matchesScanOnSeededBoards() {
+        for (long seed = 0; seed < 5; seed++) {
+            for (double fill : new double[] { 0, 0.25, 0.5, 0.75 }) {
+                compare(board(5, 5, fill, seed));
+                compare(board(7, 4, fill, seed));
+                compare(board(13, 9, fill, seed));
+            }
+        }
+    }
+
+    @Test
+    void matchesScanOnWidestBoard() {
+        for (long seed = 0; seed < 3; seed++) {
+            compare(board(Grid.MAX_COLS, Grid.MAX_ROWS, 0.2, seed));
+        }
+    }
+
+    @Test
+    void fullBoardHasNoMoves() {
+        Grid grid = board(5, 5, 1, 0);
+        LegalMoves moves = new LegalMoves();
+        for (int type = 0; type < GamePiece.PIECES; type++) {
+            assertFalse(grid.findLegalMoves(type, moves));
+            assertEquals(0, moves.count());
+        }
+    }
+
+    @Test
+    void emptyFiveByFiveCounts() {
+        int[] expected = {
+                30, 48, 9, 25, 16, 48, 48, 24, 24, 48, 9, 64, 64, 18, 40
+        };
+        Grid grid = new Grid(5, 5);
+        LegalMoves moves = new LegalMoves();
+        for (int type = 0; type < GamePiece.PIECES; type++) {
+            grid.findLegalMoves(type, moves);
+            assertEquals(expected[type], moves.count(), PieceTable.name(type));
+        }
+    }
+
+    @Test
+    void distinctRotations() {
+        int[] expected = { 2, 4, 1, 1, 1, 4, 4, 2, 2, 4, 1, 4, 4, 2, 2 };
+        for (int type = 0; type < GamePiece.PIECES; type++) {
+            int distinct = 0;
+            for (int rotation = 0; rotation < PieceTable.ROTATIONS; rotation++) {
+                if (PieceTable.isDistinct(type, rotation)) distinct++;
+            }
+            assertEquals(expected[type], distinct, PieceTable.name(type));
+        }
+    }
+}
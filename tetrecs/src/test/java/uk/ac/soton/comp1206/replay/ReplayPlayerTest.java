@@ -0,0 +1,88 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.soton.comp1206.engine.TetrecsEngine;
+import uk.ac.soton.comp1206.game.UniformPieceSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the bulk verifier passes faithful replays and reports ones which do not reach their recorded score
+ */
+class ReplayPlayerTest {
+
+    /**
+     * Run the bulk verifier and capture what it prints
+     * @param args arguments to pass
+     * @return everything it printed
+     * @throws IOException if a directory cannot be listed
+     */
+    private static String verify(String... args) throws IOException {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            ReplayPlayer.main(args);
+        } finally {
+            System.setOut(out);
+        }
+        return printed.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Record a game from a seed
+     * @param seed seed for the pieces
+     * @return the replay
+     */
+    private static Replay record(long seed) {
+        return ReplayTest.play(new TetrecsEngine(5, 5, new UniformPieceSource(seed)), 300, new ArrayList<>());
+    }
+
+    @Test
+    void faithfulReplaysPass(@TempDir Path directory) throws IOException {
+        record(1).save(directory.resolve("1" + Replay.EXTENSION));
+        record(2).save(directory.resolve("2" + Replay.EXTENSION));
+        String printed = verify(directory.toString());
+        assertTrue(printed.startsWith("2 replays, 0 failed"), printed);
+    }
+
+    @Test
+    void divergentReplayFails(@TempDir Path directory) throws IOException {
+        Replay honest = record(1);
+        int[] actions = new int[honest.size()];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = honest.getAction(i);
+        }
+        Replay claimed = new Replay(honest.getCols(), honest.getRows(), Replay.UNIFORM, 1, actions, new int[0],
+                honest.getScore() + 100);
+        Path tampered = directory.resolve("tampered" + Replay.EXTENSION);
+        honest.save(directory.resolve("honest" + Replay.EXTENSION));
+        claimed.save(tampered);
+
+        String printed = verify(directory.toString());
+        assertTrue(printed.contains(tampered + ": recorded " + claimed.getScore() + ", replayed " + honest.getScore()),
+                printed);
+        assertTrue(printed.contains("2 replays, 1 failed"), printed);
+    }
+
+    @Test
+    void damagedReplayFails(@TempDir Path directory) throws IOException {
+        Path damaged = directory.resolve("damaged" + Replay.EXTENSION);
+        Files.write(damaged, new byte[] { 'T', 'R', 'P', 1, 5 });
+        String printed = verify(damaged.toString());
+        assertTrue(printed.contains("1 replays, 1 failed"), printed);
+        assertFalse(printed.contains("0 failed"), printed);
+        assertEquals(2, printed.lines().count(), printed);
+    }
+}
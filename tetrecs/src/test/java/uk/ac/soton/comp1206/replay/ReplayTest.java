@@ -0,0 +1,198 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.soton.comp1206.engine.GameEngine;
+import uk.ac.soton.comp1206.engine.TetrecsEngine;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.PieceSource;
+import uk.ac.soton.comp1206.game.UniformPieceSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a game can be recorded, written, read back and replayed to the same result, and that damaged files are
+ * turned away
+ */
+class ReplayTest {
+
+    /**
+     * Play a game on an engine the way Game does, recording every action and the piece and score after it
+     * @param engine engine to play on, not yet started
+     * @param actions most actions to take
+     * @param trace receives the current piece, following piece and score after each action
+     * @return the replay of the game
+     */
+    static Replay play(GameEngine engine, int actions, List<String> trace) {
+        engine.start();
+        ReplayRecorder recorder = new ReplayRecorder(engine);
+        recorder.dealt();
+        Random random = new Random(7);
+        for (int i = 0; i < actions && !engine.isGameOver(); i++) {
+            switch (random.nextInt(6)) {
+                case 0:
+                    int rotations = 1 + random.nextInt(3);
+                    engine.rotate(rotations);
+                    recorder.rotate(rotations);
+                    break;
+                case 1:
+                    engine.swap();
+                    recorder.swap();
+                    break;
+                default:
+                    if (!place(engine, recorder, random)) {
+                        engine.timerExpired();
+                        recorder.timer();
+                        recorder.dealt();
+                    }
+                    break;
+            }
+            trace.add(state(engine));
+        }
+        return recorder.finish();
+    }
+
+    /**
+     * Play the current piece at a random legal position, if there is one
+     * @param engine engine to play on
+     * @param recorder recorder to record the placement
+     * @param random picks the position
+     * @return whether the piece was played
+     */
+    private static boolean place(GameEngine engine, ReplayRecorder recorder, Random random) {
+        int cols = engine.getGrid().getCols(), rows = engine.getGrid().getRows();
+        int start = random.nextInt(cols * rows);
+        for (int i = 0; i < cols * rows; i++) {
+            int index = (start + i) % (cols * rows);
+            if (engine.play(index % cols, index / cols)) {
+                recorder.place(index % cols, index / cols);
+                recorder.dealt();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Describe the part of an engine's state a replay has to reproduce
+     * @param engine the engine
+     * @return pieces, score and lives
+     */
+    static String state(GameEngine engine) {
+        return engine.getCurrentPiece().getType() + " " + engine.getFollowingPiece().getType() + " "
+                + engine.getScore() + " " + engine.getLives();
+    }
+
+    /**
+     * Write a replay to bytes
+     * @param replay the replay
+     * @return the file contents
+     * @throws IOException never, the stream is in memory
+     */
+    static byte[] bytes(Replay replay) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        replay.write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Record a game, write it, read it back and check playing it again passes through the same states
+     * @param pieces piece source of the recorded game
+     * @throws IOException if the replay cannot be read back
+     */
+    private static void roundTrip(PieceSource pieces) throws IOException {
+        List<String> recorded = new ArrayList<>();
+        Replay replay = play(new TetrecsEngine(5, 5, pieces), 500, recorded);
+        assertTrue(replay.getScore() > 0, "the recorded game should score");
+
+        byte[] written = bytes(replay);
+        Replay read = Replay.read(new ByteArrayInputStream(written));
+        assertArrayEquals(written, bytes(read));
+        assertEquals(replay.size(), read.size());
+        for (int i = 0; i < replay.size(); i++) {
+            assertEquals(replay.getAction(i), read.getAction(i));
+        }
+
+        ReplayPlayer player = new ReplayPlayer(read);
+        List<String> replayed = new ArrayList<>();
+        while (player.step()) {
+            replayed.add(state(player.getEngine()));
+        }
+        assertEquals(recorded, replayed);
+        assertEquals(replay.getScore(), player.getEngine().getScore());
+    }
+
+    @Test
+    void seededRoundTrip() throws IOException {
+        roundTrip(new UniformPieceSource(42));
+    }
+
+    @Test
+    void recordedPiecesRoundTrip() throws IOException {
+        int[] pieces = new Random(3).ints(1000, 0, GamePiece.PIECES).toArray();
+        roundTrip(new RecordedPieceSource(pieces));
+    }
+
+    @Test
+    void notAReplay() {
+        byte[] bytes = "PNG\1".getBytes();
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void truncated() throws IOException {
+        byte[] written = bytes(play(new TetrecsEngine(5, 5, new UniformPieceSource(1)), 50, new ArrayList<>()));
+        byte[] cut = Arrays.copyOf(written, written.length - 2);
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(cut)));
+    }
+
+    @Test
+    void invalidGridSize() {
+        byte[] bytes = { 'T', 'R', 'P', 1, 0, 5, Replay.UNIFORM };
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void actionCountLongerThanFile() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] { 'T', 'R', 'P', 1, 5, 5, Replay.RECORDED });
+        Varint.write(out, Integer.MAX_VALUE);
+        out.write(new byte[16]);
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    void negativePieceCount() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] { 'T', 'R', 'P', 1, 5, 5, Replay.RECORDED, 0 });
+        Varint.write(out, -1);
+        out.write(new byte[16]);
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    void tooLarge() {
+        byte[] bytes = new byte[Replay.MAX_SIZE + 1];
+        System.arraycopy(new byte[] { 'T', 'R', 'P', 1 }, 0, bytes, 0, 4);
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void emptyReplay() throws IOException {
+        Replay replay = new Replay(5, 5, Replay.BAG, 9, new int[0], new int[0], 0);
+        Replay read = Replay.read(new ByteArrayInputStream(bytes(replay)));
+        assertEquals(0, read.size());
+        assertFalse(new ReplayPlayer(read).step());
+    }
+}
@@ -0,0 +1,83 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for Varint, around the edges of each byte length
+ */
+class VarintTest {
+
+    /**
+     * Write a value and return the bytes written
+     * @param value value to write
+     * @return bytes
+     * @throws IOException never, the stream is in memory
+     */
+    private static byte[] write(int value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Varint.write(out, value);
+        return out.toByteArray();
+    }
+
+    /**
+     * Write a value, read it back and check nothing is left over
+     * @param value value to round trip
+     * @return the number of bytes it took
+     * @throws IOException if it cannot be read back
+     */
+    private static int roundTrip(int value) throws IOException {
+        byte[] bytes = write(value);
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+        assertEquals(value, Varint.read(in));
+        assertEquals(0, in.available());
+        return bytes.length;
+    }
+
+    @Test
+    void zero() throws IOException {
+        assertArrayEquals(new byte[] { 0 }, write(0));
+        assertEquals(1, roundTrip(0));
+    }
+
+    @Test
+    void largestSingleByte() throws IOException {
+        assertArrayEquals(new byte[] { 0x7F }, write(127));
+        assertEquals(1, roundTrip(127));
+    }
+
+    @Test
+    void smallestTwoBytes() throws IOException {
+        assertArrayEquals(new byte[] { (byte) 0x80, 0x01 }, write(128));
+        assertEquals(2, roundTrip(128));
+    }
+
+    @Test
+    void largestInt() throws IOException {
+        assertEquals(5, roundTrip(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void negativeIsUnsigned() throws IOException {
+        assertEquals(5, roundTrip(-1));
+    }
+
+    @Test
+    void truncated() {
+        assertThrows(EOFException.class, () -> Varint.read(new ByteArrayInputStream(new byte[] { (byte) 0x80 })));
+    }
+
+    @Test
+    void tooLong() {
+        byte[] bytes = { (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01 };
+        assertThrows(IOException.class, () -> Varint.read(new ByteArrayInputStream(bytes)));
+    }
+}